@@ -1,6 +1,23 @@
+import java.io.BufferedOutputStream;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
 
 public class WeatherAssignment {
 
@@ -38,23 +55,517 @@ public class WeatherAssignment {
         }
     }
 
+    enum MetricOp { RETRIEVE, INSERT, DELETE, TRAVERSAL, AGGREGATION }
+
+    static class BatchReader {
+        private final InputStream in;
+        private byte[] buf = new byte[1 << 16];
+        private int limit;
+        private int next;
+        private int lineEnd;
+        private int pos;
+        private int lineNo;
+        private boolean eof;
+
+        public BatchReader(InputStream in) {
+            this.in = in;
+        }
+
+        private int indexOfNewline(int from) {
+            for (int i = from; i < limit; i++) {
+                if (buf[i] == '\n') return i;
+            }
+            return -1;
+        }
+
+        private void fill() throws IOException {
+            System.arraycopy(buf, next, buf, 0, limit - next);
+            limit -= next;
+            next = 0;
+            if (limit == buf.length) buf = Arrays.copyOf(buf, buf.length << 1);
+            int n = in.read(buf, limit, buf.length - limit);
+            if (n < 0) eof = true;
+            else limit += n;
+        }
+
+        public boolean nextLine() throws IOException {
+            while (true) {
+                int nl = indexOfNewline(next);
+                if (nl < 0) {
+                    if (!eof) {
+                        fill();
+                        continue;
+                    }
+                    if (next >= limit) return false;
+                    nl = limit;
+                }
+                pos = next;
+                lineEnd = nl > pos && buf[nl - 1] == '\r' ? nl - 1 : nl;
+                next = nl + 1;
+                lineNo++;
+                skipSpaces();
+                if (pos < lineEnd && buf[pos] != '#') return true;
+            }
+        }
+
+        public int line() {
+            return lineNo;
+        }
+
+        public boolean hasField() {
+            return pos < lineEnd;
+        }
+
+        private void skipSpaces() {
+            while (pos < lineEnd && (buf[pos] == ' ' || buf[pos] == '\t')) pos++;
+        }
+
+        private int fieldEnd() {
+            int i = pos;
+            while (i < lineEnd && buf[i] != ',') i++;
+            return i;
+        }
+
+        private int trimmedEnd(int end) {
+            while (end > pos && (buf[end - 1] == ' ' || buf[end - 1] == '\t')) end--;
+            return end;
+        }
+
+        private void advance(int end) {
+            pos = end < lineEnd ? end + 1 : lineEnd;
+            skipSpaces();
+        }
+
+        public boolean keyword(String word) {
+            int end = fieldEnd(), e = trimmedEnd(end);
+            if (e - pos != word.length()) return false;
+            for (int i = 0; i < word.length(); i++) {
+                if (Character.toLowerCase(buf[pos + i]) != word.charAt(i)) return false;
+            }
+            advance(end);
+            return true;
+        }
+
+        public String text() {
+            if (!hasField()) throw new IllegalArgumentException("missing field");
+            int end = fieldEnd();
+            String s = new String(buf, pos, trimmedEnd(end) - pos, StandardCharsets.UTF_8);
+            advance(end);
+            return s;
+        }
+
+        public int intField() {
+            int end = fieldEnd(), e = trimmedEnd(end), i = pos;
+            boolean negative = i < e && buf[i] == '-';
+            if (negative || (i < e && buf[i] == '+')) i++;
+            if (i == e) throw new IllegalArgumentException("expected an integer");
+            long value = 0;
+            for (; i < e; i++) {
+                int d = buf[i] - '0';
+                if (d < 0 || d > 9) throw new IllegalArgumentException("expected an integer");
+                value = value * 10 + d;
+                if (value > (long) Integer.MAX_VALUE + 1) throw new IllegalArgumentException("integer out of range");
+            }
+            if (negative) value = -value;
+            if (value > Integer.MAX_VALUE) throw new IllegalArgumentException("integer out of range");
+            advance(end);
+            return (int) value;
+        }
+
+        private static final double[] POW10 = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+                1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18 };
+
+        public double doubleField() {
+            int end = fieldEnd(), e = trimmedEnd(end), i = pos;
+            boolean negative = i < e && buf[i] == '-';
+            if (negative || (i < e && buf[i] == '+')) i++;
+            long mantissa = 0;
+            int digits = 0, scale = 0;
+            boolean dot = false, simple = true;
+            for (; i < e; i++) {
+                byte b = buf[i];
+                if (b == '.' && !dot) {
+                    dot = true;
+                } else if (b >= '0' && b <= '9') {
+                    if (++digits > 15) simple = false;
+                    mantissa = mantissa * 10 + (b - '0');
+                    if (dot) scale++;
+                } else {
+                    simple = false;
+                    break;
+                }
+            }
+            double value;
+            if (simple && digits > 0) {
+                value = mantissa / POW10[scale];
+                if (negative) value = -value;
+            } else {
+                try {
+                    value = Double.parseDouble(new String(buf, pos, e - pos, StandardCharsets.US_ASCII));
+                } catch (NumberFormatException ex) {
+                    throw new IllegalArgumentException("expected a number");
+                }
+            }
+            if (!Double.isFinite(value)) throw new IllegalArgumentException("expected a number");
+            advance(end);
+            return value;
+        }
+    }
+
+    static class LatencyHistogram {
+        private static final int LINEAR = 32;
+        private static final int SUB_BITS = 4;
+        private static final int SUB = 1 << SUB_BITS;
+        private static final int BUCKETS = LINEAR + (63 - 5) * SUB;
+
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+        private final LongAdder total = new LongAdder();
+        private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+        private static int bucketOf(long v) {
+            if (v < LINEAR) return (int) Math.max(0, v);
+            int mag = 63 - Long.numberOfLeadingZeros(v);
+            int sub = (int) (v >>> (mag - SUB_BITS)) & (SUB - 1);
+            return LINEAR + (mag - 5) * SUB + sub;
+        }
+
+        private static long upperBoundOf(int bucket) {
+            if (bucket < LINEAR) return bucket;
+            int mag = (bucket - LINEAR) / SUB + 5;
+            int sub = (bucket - LINEAR) % SUB;
+            long lower = (long) (SUB + sub) << (mag - SUB_BITS);
+            return lower + (1L << (mag - SUB_BITS)) - 1;
+        }
+
+        void record(long nanos) {
+            counts.incrementAndGet(bucketOf(nanos));
+            total.increment();
+            max.accumulate(nanos);
+        }
+
+        long count() { return total.sum(); }
+
+        long max() { return max.get(); }
+
+        long percentile(double p) {
+            long n = total.sum();
+            if (n == 0) return 0;
+            long rank = Math.max(1, (long) Math.ceil(p / 100.0 * n));
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts.get(i);
+                if (seen >= rank) return Math.min(upperBoundOf(i), max.get());
+            }
+            return max.get();
+        }
+    }
+
+    static class WeatherMetrics {
+        private final EnumMap<MetricOp, LatencyHistogram> latency = new EnumMap<>(MetricOp.class);
+        private final EnumMap<MetricOp, LongAdder> errors = new EnumMap<>(MetricOp.class);
+
+        WeatherMetrics() {
+            for (MetricOp op : MetricOp.values()) {
+                latency.put(op, new LatencyHistogram());
+                errors.put(op, new LongAdder());
+            }
+        }
+
+        void record(MetricOp op, long nanos) { latency.get(op).record(nanos); }
+
+        void recordError(MetricOp op) { errors.get(op).increment(); }
+
+        LatencyHistogram histogram(MetricOp op) { return latency.get(op); }
+
+        String snapshot(Map<String, Double> gauges) {
+            StringBuilder sb = new StringBuilder();
+            for (MetricOp op : MetricOp.values()) {
+                LatencyHistogram h = latency.get(op);
+                String name = op.name().toLowerCase();
+                sb.append("weather_op_count{op=\"").append(name).append("\"} ").append(h.count()).append('\n');
+                sb.append("weather_op_errors{op=\"").append(name).append("\"} ").append(errors.get(op).sum()).append('\n');
+                for (String q : new String[] { "0.5", "0.9", "0.99", "0.999" }) {
+                    sb.append("weather_op_latency_ns{op=\"").append(name).append("\",quantile=\"").append(q)
+                            .append("\"} ").append(h.percentile(Double.parseDouble(q) * 100)).append('\n');
+                }
+                sb.append("weather_op_latency_ns_max{op=\"").append(name).append("\"} ").append(h.max()).append('\n');
+            }
+            for (Map.Entry<String, Double> g : gauges.entrySet()) {
+                sb.append(g.getKey()).append(' ').append(g.getValue()).append('\n');
+            }
+            return sb.toString();
+        }
+    }
+
+    enum ShardOp { RETRIEVE, INSERT, DELETE, YEAR_SUM, COPY, SIZE }
+
+    static class ShardRequest extends CompletableFuture<Double> {
+        final ShardOp op;
+        final int year;
+        final String city;
+        final double value;
+        final MetricOp metric;
+        final long start;
+        double count;
+        double[][] grid;
+
+        ShardRequest(ShardOp op, int year, String city, double value, MetricOp metric, long start) {
+            this.op = op;
+            this.year = year;
+            this.city = city;
+            this.value = value;
+            this.metric = metric;
+            this.start = start;
+        }
+    }
+
+    static class WeatherShard implements Runnable {
+        private final int startYear;
+        private final int endYear;
+        private final double[][] dense;
+        private final Map<String, Double> sparse = new HashMap<>();
+        private final Map<String, Integer> localIndex = new HashMap<>();
+        private final ConcurrentLinkedQueue<ShardRequest> inbox = new ConcurrentLinkedQueue<>();
+        private final WeatherMetrics metrics;
+        private volatile boolean running = true;
+        private Thread worker;
+
+        WeatherShard(List<String> ownedCities, int startYear, int endYear, WeatherMetrics metrics) {
+            this.startYear = startYear;
+            this.endYear = endYear;
+            this.metrics = metrics;
+            dense = new double[endYear - startYear + 1][ownedCities.size()];
+            for (double[] row : dense) Arrays.fill(row, Double.NaN);
+            for (int i = 0; i < ownedCities.size(); i++) localIndex.put(ownedCities.get(i).toLowerCase(), i);
+        }
+
+        void start(String name) {
+            worker = new Thread(this, name);
+            worker.setDaemon(true);
+            worker.start();
+        }
+
+        ShardRequest submit(ShardRequest req) {
+            inbox.offer(req);
+            LockSupport.unpark(worker);
+            return req;
+        }
+
+        void stop() {
+            running = false;
+            LockSupport.unpark(worker);
+            try { worker.join(); } catch (InterruptedException ignored) {}
+        }
+
+        @Override
+        public void run() {
+            while (running || !inbox.isEmpty()) {
+                ShardRequest req = inbox.poll();
+                if (req == null) {
+                    LockSupport.park(this);
+                    continue;
+                }
+                try {
+                    double result = handle(req);
+                    if (req.metric != null) metrics.record(req.metric, System.nanoTime() - req.start);
+                    req.complete(result);
+                } catch (RuntimeException e) {
+                    if (req.metric != null) metrics.recordError(req.metric);
+                    req.completeExceptionally(e);
+                }
+            }
+        }
+
+        private double handle(ShardRequest req) {
+            if (req.op == ShardOp.SIZE) return sparse.size();
+            if (req.op == ShardOp.COPY) {
+                req.grid = new double[dense.length][];
+                for (int i = 0; i < dense.length; i++) req.grid[i] = dense[i].clone();
+                return 0;
+            }
+            if (req.op == ShardOp.YEAR_SUM) {
+                double sum = 0;
+                int count = 0;
+                for (double v : dense[req.year - startYear]) {
+                    if (!Double.isNaN(v)) { sum += v; count++; }
+                }
+                req.count = count;
+                return sum;
+            }
+            if (req.year < startYear || req.year > endYear) throw new IllegalArgumentException("Year out of range.");
+            Integer c = localIndex.get(req.city.toLowerCase());
+            if (c == null) throw new IllegalArgumentException("Unknown city.");
+            int r = req.year - startYear;
+            String key = req.year + "-" + req.city.toLowerCase();
+            switch (req.op) {
+                case INSERT -> {
+                    dense[r][c] = req.value;
+                    sparse.put(key, req.value);
+                    return req.value;
+                }
+                case DELETE -> {
+                    dense[r][c] = Double.NaN;
+                    Double removed = sparse.remove(key);
+                    return removed == null ? Double.NaN : removed;
+                }
+                default -> {
+                    return dense[r][c];
+                }
+            }
+        }
+    }
+
+    static class ShardedWeatherStore {
+        private final WeatherShard[] shards;
+        private final List<List<String>> owned = new ArrayList<>();
+        private final Map<String, Integer> cityToShard = new HashMap<>();
+        private final int[] shardOf;
+        private final int[] columnOf;
+        private final WeatherMetrics metrics;
+        private final int startYear;
+        private final int endYear;
+
+        ShardedWeatherStore(List<String> cities, int startYear, int endYear, int shardCount) {
+            this(cities, startYear, endYear, shardCount, new WeatherMetrics());
+        }
+
+        ShardedWeatherStore(List<String> cities, int startYear, int endYear, int shardCount, WeatherMetrics metrics) {
+            this.startYear = startYear;
+            this.endYear = endYear;
+            this.metrics = metrics;
+            int n = Math.max(1, Math.min(shardCount, cities.size()));
+            shardOf = new int[cities.size()];
+            columnOf = new int[cities.size()];
+            for (int s = 0; s < n; s++) owned.add(new ArrayList<>());
+            for (int i = 0; i < cities.size(); i++) {
+                shardOf[i] = i % n;
+                columnOf[i] = owned.get(i % n).size();
+                owned.get(i % n).add(cities.get(i));
+                cityToShard.put(cities.get(i).toLowerCase(), i % n);
+            }
+            shards = new WeatherShard[n];
+            for (int s = 0; s < n; s++) {
+                shards[s] = new WeatherShard(owned.get(s), startYear, endYear, metrics);
+                shards[s].start("weather-shard-" + s);
+            }
+        }
+
+        int shardCount() { return shards.length; }
+
+        List<String> citiesOf(int shard) { return owned.get(shard); }
+
+        WeatherMetrics metrics() { return metrics; }
+
+        private <T> CompletableFuture<T> timed(MetricOp op, Supplier<CompletableFuture<T>> call) {
+            long start = System.nanoTime();
+            CompletableFuture<T> future;
+            try {
+                future = call.get();
+            } catch (RuntimeException e) {
+                metrics.recordError(op);
+                return CompletableFuture.failedFuture(e);
+            }
+            return future.whenComplete((v, e) -> {
+                if (e != null) metrics.recordError(op);
+                else metrics.record(op, System.nanoTime() - start);
+            });
+        }
+
+        private CompletableFuture<Double> submit(MetricOp metric, ShardOp op, String city, int year, double value) {
+            long start = System.nanoTime();
+            Integer s = city == null ? null : cityToShard.get(city.toLowerCase());
+            if (s == null) {
+                metrics.recordError(metric);
+                return CompletableFuture.failedFuture(new IllegalArgumentException("Unknown city."));
+            }
+            return shards[s].submit(new ShardRequest(op, year, city, value, metric, start));
+        }
+
+        CompletableFuture<Double> retrieve(String city, int year) {
+            return submit(MetricOp.RETRIEVE, ShardOp.RETRIEVE, city, year, 0);
+        }
+
+        CompletableFuture<Double> insert(String city, int year, double temperature) {
+            return submit(MetricOp.INSERT, ShardOp.INSERT, city, year, temperature);
+        }
+
+        CompletableFuture<Double> delete(String city, int year) {
+            return submit(MetricOp.DELETE, ShardOp.DELETE, city, year, 0);
+        }
+
+        CompletableFuture<Double> yearlyAverage(int year) {
+            return timed(MetricOp.AGGREGATION, () -> {
+                if (year < startYear || year > endYear) throw new IllegalArgumentException("Year out of range.");
+                ShardRequest[] parts = new ShardRequest[shards.length];
+                for (int s = 0; s < shards.length; s++) {
+                    parts[s] = shards[s].submit(new ShardRequest(ShardOp.YEAR_SUM, year, null, 0, null, 0));
+                }
+                return CompletableFuture.allOf(parts).thenApply(v -> {
+                    double sum = 0, count = 0;
+                    for (ShardRequest p : parts) {
+                        sum += p.join();
+                        count += p.count;
+                    }
+                    return count == 0 ? Double.NaN : sum / count;
+                });
+            });
+        }
+
+        double[][] grid() {
+            ShardRequest[] parts = new ShardRequest[shards.length];
+            for (int s = 0; s < shards.length; s++) {
+                parts[s] = shards[s].submit(new ShardRequest(ShardOp.COPY, 0, null, 0, null, 0));
+            }
+            CompletableFuture.allOf(parts).join();
+            double[][] grid = new double[endYear - startYear + 1][shardOf.length];
+            for (int i = 0; i < grid.length; i++) {
+                for (int c = 0; c < shardOf.length; c++) grid[i][c] = parts[shardOf[c]].grid[i][columnOf[c]];
+            }
+            return grid;
+        }
+
+        int sparseEntries() {
+            int total = 0;
+            for (WeatherShard shard : shards) {
+                total += shard.submit(new ShardRequest(ShardOp.SIZE, 0, null, 0, null, 0)).join().intValue();
+            }
+            return total;
+        }
+
+        void shutdown() {
+            for (WeatherShard shard : shards) shard.stop();
+        }
+    }
+
     private final List<String> cities;
     private final int startYear;
     private final int endYear;
     private final double[][] dense;
     private final Map<String, Double> sparse;
     private final Map<String, Integer> cityToIndex;
+    private final WeatherMetrics metrics = new WeatherMetrics();
+    private final ShardedWeatherStore sharded;
     private final Scanner sc;
 
     public WeatherAssignment(List<String> cities, int startYear, int endYear) {
+        this(cities, startYear, endYear, 0);
+    }
+
+    public WeatherAssignment(List<String> cities, int startYear, int endYear, int shards) {
         this.cities = new ArrayList<>(cities);
         this.startYear = startYear;
         this.endYear = endYear;
-        int rows = endYear - startYear + 1;
-        int cols = cities.size();
-        dense = new double[rows][cols];
-        for (int i = 0; i < rows; i++)
-            Arrays.fill(dense[i], Double.NaN);
+        if (shards > 0) {
+            sharded = new ShardedWeatherStore(cities, startYear, endYear, shards, metrics);
+            dense = null;
+        } else {
+            sharded = null;
+            int rows = endYear - startYear + 1;
+            int cols = cities.size();
+            dense = new double[rows][cols];
+            for (int i = 0; i < rows; i++)
+                Arrays.fill(dense[i], Double.NaN);
+        }
         sparse = new HashMap<>();
         cityToIndex = new HashMap<>();
         for (int i = 0; i < cities.size(); i++) cityToIndex.put(cities.get(i).toLowerCase(), i);
@@ -72,12 +583,29 @@ public class WeatherAssignment {
         return year + "-" + city.toLowerCase();
     }
 
+    private static double await(CompletableFuture<Double> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+    }
+
+    private double[][] grid() {
+        return sharded == null ? dense : sharded.grid();
+    }
+
+    private int sparseEntries() {
+        return sharded == null ? sparse.size() : sharded.sparseEntries();
+    }
+
     public void interactiveMenu() {
         System.out.println("=== Weather Data System ===");
         System.out.println("Available cities: " + cities);
         while (true) {
             System.out.println();
-            System.out.print("Choose option: 1=Retrieve  2=Insert  3=Delete  4=RowTraversal 5=ColTraversal  6=Analysis  7=Exit : ");
+            System.out.print("Choose option: 1=Retrieve  2=Insert  3=Delete  4=RowTraversal 5=ColTraversal  6=Analysis  7=Exit  8=Metrics  9=YearlyAverage : ");
             String opt = sc.nextLine().trim();
             switch (opt) {
                 case "1" -> handleRetrieve();
@@ -87,6 +615,8 @@ public class WeatherAssignment {
                 case "5" -> performColumnTraversal(true);
                 case "6" -> showComplexityAndSpace();
                 case "7" -> { shutdown(); return; }
+                case "8" -> System.out.print(metricsSnapshot());
+                case "9" -> handleYearlyAverage();
                 default -> System.out.println("Invalid option");
             }
         }
@@ -98,13 +628,26 @@ public class WeatherAssignment {
         Integer y = promptYear();
         if (y == null) return;
 
+        retrieve(city, y);
+    }
+
+    private void retrieve(String city, int y) {
         int r = y - startYear;
         Integer c = cityIndex(city);
         if (c == null) { System.out.println("Unknown city."); return; }
 
+        if (sharded != null) {
+            double v = await(sharded.retrieve(city, y));
+            if (Double.isNaN(v)) System.out.println("[Shard] No record found for " + city + " in " + y);
+            else System.out.printf("[Shard] %s %d -> %.2f°C%n", city, y, v);
+            return;
+        }
+
+        long start = System.nanoTime();
         double denseVal = dense[r][c];
         String key = sparseKey(y, city);
         Double sparseVal = sparse.get(key);
+        metrics.record(MetricOp.RETRIEVE, System.nanoTime() - start);
 
         if (Double.isNaN(denseVal)) System.out.println("[Dense] No record found for " + city + " in " + y);
         else System.out.printf("[Dense] %s %d -> %.2f°C%n", city, y, denseVal);
@@ -121,14 +664,24 @@ public class WeatherAssignment {
         Double temp = promptTemperature();
         if (temp == null) return;
 
-        int r = y - startYear;
-        Integer c = cityIndex(city);
-        if (c == null) { System.out.println("Unknown city."); return; }
+        if (cityIndex(city) == null) { System.out.println("Unknown city."); return; }
 
         runLoader("Inserting");
+        insert(city, y, temp);
+    }
 
+    private void insert(String city, int y, double temp) {
+        if (sharded != null) {
+            await(sharded.insert(city, y, temp));
+            System.out.printf("Inserted %s %d -> %.2f°C%n", city, y, temp);
+            return;
+        }
+        int r = y - startYear;
+        int c = cityIndex(city);
+        long start = System.nanoTime();
         dense[r][c] = temp;
         sparse.put(sparseKey(y, city), temp);
+        metrics.record(MetricOp.INSERT, System.nanoTime() - start);
         System.out.printf("Inserted %s %d -> %.2f°C%n", city, y, temp);
     }
 
@@ -138,19 +691,54 @@ public class WeatherAssignment {
         Integer y = promptYear();
         if (y == null) return;
 
-        int r = y - startYear;
-        Integer c = cityIndex(city);
-        if (c == null) { System.out.println("Unknown city."); return; }
+        if (cityIndex(city) == null) { System.out.println("Unknown city."); return; }
 
         runLoader("Deleting");
+        delete(city, y);
+    }
 
+    private void delete(String city, int y) {
+        if (sharded != null) {
+            if (Double.isNaN(await(sharded.delete(city, y)))) System.out.println("No record to delete.");
+            else System.out.println("Deleted " + city + " " + y);
+            return;
+        }
+        int r = y - startYear;
+        int c = cityIndex(city);
+        long start = System.nanoTime();
         dense[r][c] = Double.NaN;
         Double removed = sparse.remove(sparseKey(y, city));
+        metrics.record(MetricOp.DELETE, System.nanoTime() - start);
         if (removed == null) System.out.println("No record to delete.");
         else System.out.println("Deleted " + city + " " + y);
     }
 
+    private void handleYearlyAverage() {
+        Integer y = promptYear();
+        if (y == null) return;
+        yearlyAverage(y);
+    }
+
+    private void yearlyAverage(int y) {
+        double avg;
+        if (sharded != null) {
+            avg = await(sharded.yearlyAverage(y));
+        } else {
+            long start = System.nanoTime();
+            double sum = 0;
+            int count = 0;
+            for (double v : dense[y - startYear]) {
+                if (!Double.isNaN(v)) { sum += v; count++; }
+            }
+            avg = count == 0 ? Double.NaN : sum / count;
+            metrics.record(MetricOp.AGGREGATION, System.nanoTime() - start);
+        }
+        if (Double.isNaN(avg)) System.out.println("No records for " + y);
+        else System.out.printf("Average %d -> %.2f°C%n", y, avg);
+    }
+
     private void performRowTraversal(boolean printValues) {
+        double[][] dense = grid();
         int rows = dense.length, cols = dense[0].length;
         long start = System.nanoTime();
         for (int i = 0; i < rows; i++) {
@@ -163,11 +751,13 @@ public class WeatherAssignment {
             }
         }
         long end = System.nanoTime();
+        metrics.record(MetricOp.TRAVERSAL, end - start);
         long ms = TimeUnit.NANOSECONDS.toMillis(end - start);
         System.out.println("Row-major traversal time: " + ms + " ms");
     }
 
     private void performColumnTraversal(boolean printValues) {
+        double[][] dense = grid();
         int rows = dense.length, cols = dense[0].length;
         long start = System.nanoTime();
         for (int j = 0; j < cols; j++) {
@@ -179,6 +769,7 @@ public class WeatherAssignment {
             }
         }
         long end = System.nanoTime();
+        metrics.record(MetricOp.TRAVERSAL, end - start);
         long ms = TimeUnit.NANOSECONDS.toMillis(end - start);
         System.out.println("Column-major traversal time: " + ms + " ms");
     }
@@ -190,10 +781,10 @@ public class WeatherAssignment {
         System.out.println("Retrieve: O(1)");
         System.out.println("Row/Column Traversal: O(R × C)");
 
-        int rows = dense.length;
-        int cols = dense[0].length;
+        int rows = endYear - startYear + 1;
+        int cols = cities.size();
         int denseCells = rows * cols;
-        int sparseEntries = sparse.size();
+        int sparseEntries = sparseEntries();
 
         long denseBytes = (long) denseCells * Double.BYTES;
         System.out.println("\n--- Space Analysis (approx) ---");
@@ -223,6 +814,23 @@ public class WeatherAssignment {
         return TimeUnit.NANOSECONDS.toMillis(end - start);
     }
 
+    String metricsSnapshot() {
+        double[][] dense = grid();
+        int rows = dense.length, cols = dense[0].length;
+        long filled = 0;
+        for (double[] row : dense)
+            for (double v : row)
+                if (!Double.isNaN(v)) filled++;
+        Runtime rt = Runtime.getRuntime();
+        Map<String, Double> gauges = new LinkedHashMap<>();
+        gauges.put("weather_dense_fill_ratio", rows * cols == 0 ? 0.0 : (double) filled / (rows * cols));
+        gauges.put("weather_sparse_entries", (double) sparseEntries());
+        gauges.put("weather_shards", (double) (sharded == null ? 0 : sharded.shardCount()));
+        gauges.put("weather_dense_bytes", (double) ((long) rows * cols * Double.BYTES));
+        gauges.put("jvm_heap_used_bytes", (double) (rt.totalMemory() - rt.freeMemory()));
+        return metrics.snapshot(gauges);
+    }
+
     private void runLoader(String msg) {
         Thread t = new Thread(new Loader(msg));
         t.start();
@@ -266,18 +874,131 @@ public class WeatherAssignment {
     private void shutdown() {
         System.out.println("Exiting. Final complexity & space summary:");
         showComplexityAndSpace();
+        if (sharded != null) sharded.shutdown();
         sc.close();
     }
 
-    public static void main(String[] args) {
+    private String batchCity(BatchReader r) {
+        String city = r.text();
+        Integer c = cityIndex(city);
+        if (c == null) throw new IllegalArgumentException("City not in available list.");
+        return cities.get(c);
+    }
+
+    private int batchYear(BatchReader r) {
+        int y = r.intField();
+        if (!validYear(y)) throw new IllegalArgumentException("Year out of range.");
+        return y;
+    }
+
+    long runBatch(InputStream in) throws IOException {
+        BatchReader r = new BatchReader(in);
+        PrintStream console = System.out;
+        PrintStream out = new PrintStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out), 1 << 16), false);
+        System.setOut(out);
+        long commands = 0;
+        try {
+            while (r.nextLine()) {
+                commands++;
+                try {
+                    if (r.keyword("retrieve")) retrieve(batchCity(r), batchYear(r));
+                    else if (r.keyword("insert")) insert(batchCity(r), batchYear(r), r.doubleField());
+                    else if (r.keyword("delete")) delete(batchCity(r), batchYear(r));
+                    else if (r.keyword("row")) performRowTraversal(true);
+                    else if (r.keyword("col")) performColumnTraversal(true);
+                    else if (r.keyword("analysis")) showComplexityAndSpace();
+                    else if (r.keyword("metrics")) out.print(metricsSnapshot());
+                    else if (r.keyword("average")) yearlyAverage(batchYear(r));
+                    else out.println("Line " + r.line() + ": unknown command");
+                } catch (IllegalArgumentException e) {
+                    out.println("Line " + r.line() + ": " + e.getMessage());
+                }
+            }
+        } finally {
+            out.flush();
+            System.setOut(console);
+        }
+        return commands;
+    }
+
+    static void runShardBenchmark(int maxShards) {
+        List<String> cities = new ArrayList<>();
+        for (int i = 0; i < 64; i++) cities.add("City" + i);
+        int startYear = 1900, endYear = 2025, opsPerCity = 20_000;
+        System.out.println("\n--- Partitioned store throughput (city-local inserts, one producer per shard) ---");
+        for (int n = 1; n <= maxShards; n *= 2) {
+            ShardedWeatherStore store = new ShardedWeatherStore(cities, startYear, endYear, n);
+            Thread[] producers = new Thread[store.shardCount()];
+            long start = System.nanoTime();
+            for (int s = 0; s < producers.length; s++) {
+                List<String> owned = store.citiesOf(s);
+                producers[s] = new Thread(() -> {
+                    CompletableFuture<?>[] window = new CompletableFuture<?>[8192];
+                    int pending = 0;
+                    for (int i = 0; i < opsPerCity; i++) {
+                        int year = startYear + i % (endYear - startYear + 1);
+                        for (String city : owned) {
+                            window[pending++] = store.insert(city, year, i % 50);
+                            if (pending == window.length) {
+                                CompletableFuture.allOf(window).join();
+                                pending = 0;
+                            }
+                        }
+                    }
+                    CompletableFuture.allOf(Arrays.copyOf(window, pending)).join();
+                }, "weather-producer-" + s);
+                producers[s].start();
+            }
+            for (Thread t : producers) {
+                try { t.join(); } catch (InterruptedException e) { Thread.currentThread().interrupt(); return; }
+            }
+            long ms = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            long ops = (long) opsPerCity * cities.size();
+            System.out.printf("Shards: %d  ops: %d  time: %d ms  throughput: %d ops/s  p99: %d ns%n", store.shardCount(), ops, ms,
+                    ops * 1000 / ms, store.metrics().histogram(MetricOp.INSERT).percentile(99));
+            store.shutdown();
+        }
+    }
+
+    private void seed(String city, int year, double temp) {
+        if (sharded != null) {
+            await(sharded.insert(city, year, temp));
+            return;
+        }
+        dense[year - startYear][cityIndex(city)] = temp;
+        sparse.put(sparseKey(year, city), temp);
+    }
+
+    public static void main(String[] args) throws IOException {
+        int shards = 0;
+        boolean batchMode = false;
+        Path batch = null;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--shard-benchmark") && i + 1 < args.length) {
+                runShardBenchmark(Integer.parseInt(args[++i]));
+                return;
+            } else if (args[i].equals("--shards") && i + 1 < args.length) {
+                shards = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--batch")) {
+                batchMode = true;
+                if (i + 1 < args.length && !args[i + 1].startsWith("--")) batch = Path.of(args[++i]);
+            }
+        }
         List<String> cities = Arrays.asList("Delhi", "Mumbai", "Chennai", "Kolkata", "Bengaluru");
-        WeatherAssignment app = new WeatherAssignment(cities, 2021, 2025);
+        WeatherAssignment app = new WeatherAssignment(cities, 2021, 2025, shards);
 
-        app.dense[2021 - app.startYear][0] = 26.3;
-        app.sparse.put(app.sparseKey(2021, "Delhi"), 26.3);
-        app.dense[2022 - app.startYear][1] = 28.5;
-        app.sparse.put(app.sparseKey(2022, "Mumbai"), 28.5);
+        app.seed("Delhi", 2021, 26.3);
+        app.seed("Mumbai", 2022, 28.5);
 
+        if (batchMode) {
+            long start = System.nanoTime();
+            try (InputStream in = batch != null ? Files.newInputStream(batch) : System.in) {
+                long commands = app.runBatch(in);
+                System.err.printf("Replayed %d commands in %d ms%n", commands, (System.nanoTime() - start) / 1_000_000);
+            }
+            if (app.sharded != null) app.sharded.shutdown();
+            return;
+        }
         app.interactiveMenu();
     }
 }
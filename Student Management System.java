@@ -1,142 +1,3323 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+
+class StringDictionary {
+    static final StringDictionary COURSES = new StringDictionary();
+    static final StringDictionary GRADES = new StringDictionary();
+
+    private final ConcurrentHashMap<String, Integer> codes = new ConcurrentHashMap<>();
+    private volatile String[] values = new String[16];
+    private volatile int[] folded = new int[16];
+    private int size;
+
+    public int encode(String value) {
+        if (value == null) return -1;
+        Integer code = codes.get(value);
+        return code != null ? code : add(value);
+    }
+
+    private synchronized int add(String value) {
+        Integer existing = codes.get(value);
+        if (existing != null) return existing;
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size << 1);
+            folded = Arrays.copyOf(folded, size << 1);
+        }
+        int code = size++;
+        values[code] = value;
+        String key = value.trim().toLowerCase();
+        int foldedCode = key.equals(value) ? code : encode(key);
+        folded[code] = foldedCode;
+        codes.put(value, code);
+        return code;
+    }
+
+    public int codeOf(String value) {
+        Integer code = value == null ? null : codes.get(value);
+        return code == null ? -1 : code;
+    }
+
+    public String decode(int code) {
+        return code < 0 ? null : values[code];
+    }
+
+    public int fold(int code) {
+        return code < 0 ? encode("") : folded[code];
+    }
+
+    public int foldedCodeOf(String value) {
+        return codeOf(value == null ? "" : value.trim().toLowerCase());
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+}
 
 abstract class Person {
-    protected String name;
-    protected String email;
+    private static final byte UTF8 = 1, NO_NAME = 2, NO_EMAIL = 4;
+    private static final int HEADER = 3;
+
+    private final byte[] text;
+
     public Person(String name, String email) {
-        this.name = name;
-        this.email = email;
+        this.text = pack(name, email);
+    }
+
+    Person(byte[] packed) {
+        this.text = packed;
+    }
+
+    private static boolean latin1(String value) {
+        if (value == null) return true;
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > 0xFF) return false;
+        }
+        return true;
+    }
+
+    static byte[] pack(String name, String email) {
+        boolean latin1 = latin1(name) && latin1(email);
+        Charset cs = latin1 ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8;
+        byte[] n = name == null ? new byte[0] : name.getBytes(cs);
+        byte[] e = email == null ? new byte[0] : email.getBytes(cs);
+        if (n.length > 0xFFFF) throw new IllegalArgumentException("Name is too long");
+        byte[] packed = new byte[HEADER + n.length + e.length];
+        packed[0] = (byte) ((latin1 ? 0 : UTF8) | (name == null ? NO_NAME : 0) | (email == null ? NO_EMAIL : 0));
+        packed[1] = (byte) (n.length >>> 8);
+        packed[2] = (byte) n.length;
+        System.arraycopy(n, 0, packed, HEADER, n.length);
+        System.arraycopy(e, 0, packed, HEADER + n.length, e.length);
+        return packed;
+    }
+
+    private static int nameLength(byte[] packed, int off) {
+        return (packed[off + 1] & 0xFF) << 8 | (packed[off + 2] & 0xFF);
+    }
+
+    private static Charset charset(byte[] packed, int off) {
+        return (packed[off] & UTF8) == 0 ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8;
+    }
+
+    static String nameOf(byte[] packed, int off) {
+        if ((packed[off] & NO_NAME) != 0) return null;
+        return new String(packed, off + HEADER, nameLength(packed, off), charset(packed, off));
+    }
+
+    static String emailOf(byte[] packed, int off, int len) {
+        if ((packed[off] & NO_EMAIL) != 0) return null;
+        int start = off + HEADER + nameLength(packed, off);
+        return new String(packed, start, off + len - start, charset(packed, off));
+    }
+
+    private int nameLength() {
+        return nameLength(text, 0);
+    }
+
+    byte[] packed() {
+        return text;
+    }
+
+    public String getName() {
+        return nameOf(text, 0);
+    }
+
+    public String getEmail() {
+        return emailOf(text, 0, text.length);
+    }
+
+    static int compareNames(Person a, Person b) {
+        if (((a.text[0] | b.text[0]) & UTF8) != 0) {
+            String x = a.getName(), y = b.getName();
+            return String.CASE_INSENSITIVE_ORDER.compare(x == null ? "" : x, y == null ? "" : y);
+        }
+        int la = a.nameLength(), lb = b.nameLength();
+        for (int i = HEADER, end = HEADER + Math.min(la, lb); i < end; i++) {
+            int ca = a.text[i] & 0xFF, cb = b.text[i] & 0xFF;
+            if (ca != cb) {
+                ca = Character.toUpperCase(ca);
+                cb = Character.toUpperCase(cb);
+                if (ca != cb) {
+                    ca = Character.toLowerCase(ca);
+                    cb = Character.toLowerCase(cb);
+                    if (ca != cb) return ca - cb;
+                }
+            }
+        }
+        return la - lb;
+    }
+
+    public abstract void displayInfo();
+}
+
+class Student extends Person {
+    private int rollNo;
+    private int course;
+    private double marks;
+    private int grade;
+
+    public Student(int rollNo, String name, String email, String course, double marks, String grade) {
+        super(name, email);
+        this.rollNo = rollNo;
+        this.course = StringDictionary.COURSES.encode(course);
+        this.marks = marks;
+        this.grade = StringDictionary.GRADES.encode(grade);
+    }
+
+    Student(int rollNo, byte[] packed, int course, double marks, int grade) {
+        super(packed);
+        this.rollNo = rollNo;
+        this.course = course;
+        this.marks = marks;
+        this.grade = grade;
+    }
+
+    @Override
+    public void displayInfo() {
+        StringBuilder sb = new StringBuilder(128);
+        appendInfo(sb);
+        System.out.print(sb);
+    }
+
+    public void appendInfo(StringBuilder sb) {
+        sb.append("Student Info:\n")
+          .append("Roll No: ").append(rollNo).append('\n')
+          .append("Name: ").append(getName()).append('\n')
+          .append("Email: ").append(getEmail()).append('\n')
+          .append("Course: ").append(getCourse()).append('\n')
+          .append("Grade: ").append(getGrade()).append("\n\n");
+    }
+
+    public void displayInfo(String researchArea) {
+        System.out.println("Student Info:");
+        System.out.println("Roll No: " + rollNo);
+        System.out.println("Name: " + getName());
+        System.out.println("Email: " + getEmail());
+        System.out.println("Course: " + getCourse());
+        System.out.println("Research Area: " + researchArea);
+        System.out.println();
+    }
+
+    public int getRollNo() {
+        return rollNo;
+    }
+    public String getCourse() {
+        return StringDictionary.COURSES.decode(course);
+    }
+    public int getCourseCode() {
+        return course;
+    }
+    public double getMarks() {
+        return marks;
+    }
+    public String getGrade() {
+        return StringDictionary.GRADES.decode(grade);
+    }
+    public int getGradeCode() {
+        return grade;
+    }
+    public void setMarks(double marks) {
+        this.marks = marks;
+    }
+    public void setGrade(String grade) {
+        this.grade = StringDictionary.GRADES.encode(grade);
+    }
+}
+
+interface RecordActions {
+    void addStudent(Student student);
+    void deleteStudent(int rollNo);
+    void updateStudent(int rollNo, double newMarks, String newGrade);
+    Student searchStudent(int rollNo);
+    void viewAllStudents();
+}
+
+class GradingPolicy {
+    private final double[] bounds;
+    private final String[] grades;
+    private final double shift;
+
+    public GradingPolicy(double[] bounds, String[] grades) {
+        this(bounds, grades, 0);
+    }
+
+    private GradingPolicy(double[] bounds, String[] grades, double shift) {
+        if (grades.length != bounds.length + 1) throw new IllegalArgumentException("Need one more grade than boundaries");
+        for (int i = 1; i < bounds.length; i++) {
+            if (bounds[i] < bounds[i - 1]) throw new IllegalArgumentException("Boundaries must be ascending");
+        }
+        this.bounds = bounds.clone();
+        this.grades = grades.clone();
+        this.shift = shift;
+    }
+
+    public static GradingPolicy standard() {
+        return new GradingPolicy(new double[] { 40, 60, 75, 90 }, new String[] { "F", "D", "C", "B", "A" });
+    }
+
+    public static GradingPolicy fromPercentiles(double[] marks, double[] cutoffs, String[] grades) {
+        double[] sorted = marks.clone();
+        Arrays.parallelSort(sorted);
+        double[] bounds = new double[cutoffs.length];
+        for (int i = 0; i < cutoffs.length; i++) {
+            int at = (int) Math.ceil(cutoffs[i] / 100.0 * sorted.length);
+            bounds[i] = sorted.length == 0 ? 0 : sorted[Math.min(at, sorted.length - 1)];
+        }
+        return new GradingPolicy(bounds, grades);
+    }
+
+    public GradingPolicy curved(double points) {
+        return new GradingPolicy(bounds, grades, shift + points);
+    }
+
+    public int gradeIndex(double marks) {
+        double m = Math.min(100, Math.max(0, marks + shift));
+        int idx = 0;
+        for (double b : bounds) idx += m >= b ? 1 : 0;
+        return idx;
+    }
+
+    public String gradeOf(double marks) {
+        return grades[gradeIndex(marks)];
+    }
+
+    public String grade(int index) {
+        return grades[index];
+    }
+
+    public int gradeCount() {
+        return grades.length;
+    }
+}
+
+class CourseStats {
+    public static final int BINS = 10;
+
+    private long count;
+    private double sum;
+    private double mean;
+    private double m2;
+    private final long[] histogram = new long[BINS];
+    private final Map<String, Long> grades = new TreeMap<>();
+
+    private static int bin(double marks) {
+        return (int) Math.min(BINS - 1, Math.max(0, marks / (100.0 / BINS)));
+    }
+
+    void add(double marks, String grade) {
+        count++;
+        sum += marks;
+        double delta = marks - mean;
+        mean += delta / count;
+        m2 += delta * (marks - mean);
+        histogram[bin(marks)]++;
+        grades.merge(grade == null ? "" : grade, 1L, Long::sum);
+    }
+
+    void remove(double marks, String grade) {
+        if (--count == 0) {
+            sum = mean = m2 = 0;
+        } else {
+            sum -= marks;
+            double delta = marks - mean;
+            mean -= delta / count;
+            m2 = Math.max(0, m2 - delta * (marks - mean));
+        }
+        histogram[bin(marks)]--;
+        grades.computeIfPresent(grade == null ? "" : grade, (g, n) -> n == 1 ? null : n - 1);
+    }
+
+    void regrade(String oldGrade, String newGrade) {
+        grades.computeIfPresent(oldGrade == null ? "" : oldGrade, (g, n) -> n == 1 ? null : n - 1);
+        grades.merge(newGrade == null ? "" : newGrade, 1L, Long::sum);
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public double sum() {
+        return sum;
+    }
+
+    public double mean() {
+        return count == 0 ? Double.NaN : mean;
+    }
+
+    public double variance() {
+        return count == 0 ? Double.NaN : m2 / count;
+    }
+
+    public double sampleVariance() {
+        return count < 2 ? Double.NaN : m2 / (count - 1);
+    }
+
+    public double stdDev() {
+        return Math.sqrt(variance());
+    }
+
+    public long[] histogram() {
+        return histogram.clone();
+    }
+
+    public Map<String, Long> gradeDistribution() {
+        return Collections.unmodifiableMap(grades);
+    }
+
+    public String summary() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Count: %d, Mean: %.2f, Std Dev: %.2f%n", count, mean(), stdDev()));
+        for (int b = 0; b < BINS; b++) {
+            int lo = b * (100 / BINS);
+            sb.append(String.format("%3d-%-3d | %d%n", lo, b == BINS - 1 ? 100 : lo + 100 / BINS - 1, histogram[b]));
+        }
+        sb.append("Grades: ").append(grades).append('\n');
+        return sb.toString();
+    }
+}
+
+class StudentSearchIndex {
+    private static final class IntList {
+        int[] items = new int[4];
+        int size;
+
+        void add(int v) {
+            if (size == items.length) items = Arrays.copyOf(items, size << 1);
+            items[size++] = v;
+        }
+
+        boolean remove(int v) {
+            for (int i = 0; i < size; i++) {
+                if (items[i] == v) {
+                    items[i] = items[--size];
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private final Map<String, Integer> termIds = new HashMap<>();
+    private String[] termText = new String[64];
+    private IntList[] rolls = new IntList[64];
+    private int termCount;
+    private int liveTerms;
+
+    private int[] sorted = new int[0];
+    private final TreeMap<String, Integer> recent = new TreeMap<>();
+    private final Map<Long, IntList> trigrams = new HashMap<>();
+    private final List<IntList> byLength = new ArrayList<>();
+
+    private static Set<String> termsOf(String name, String email) {
+        Set<String> result = new HashSet<>();
+        if (name != null) {
+            String full = name.trim().toLowerCase();
+            if (!full.isEmpty()) result.add(full);
+            for (String token : full.split("[^\\p{L}\\p{N}]+")) {
+                if (!token.isEmpty()) result.add(token);
+            }
+        }
+        if (email != null) {
+            String e = email.trim().toLowerCase();
+            if (!e.isEmpty()) result.add(e);
+            int at = e.indexOf('@');
+            if (at > 0) result.add(e.substring(0, at));
+        }
+        return result;
+    }
+
+    private static long[] gramsOf(String term) {
+        String padded = "$" + term + "$";
+        long[] grams = new long[padded.length() - 2];
+        for (int i = 0; i < grams.length; i++) {
+            grams[i] = (long) padded.charAt(i) << 32 | (long) padded.charAt(i + 1) << 16 | padded.charAt(i + 2);
+        }
+        Arrays.sort(grams);
+        int n = 0;
+        for (int i = 0; i < grams.length; i++) {
+            if (i == 0 || grams[i] != grams[i - 1]) grams[n++] = grams[i];
+        }
+        return Arrays.copyOf(grams, n);
+    }
+
+    private int newTerm(String term) {
+        if (termCount == termText.length) {
+            termText = Arrays.copyOf(termText, termCount << 1);
+            rolls = Arrays.copyOf(rolls, termCount << 1);
+        }
+        int id = termCount++;
+        termText[id] = term;
+        rolls[id] = new IntList();
+        termIds.put(term, id);
+        for (long g : gramsOf(term)) trigrams.computeIfAbsent(g, k -> new IntList()).add(id);
+        while (byLength.size() <= term.length()) byLength.add(new IntList());
+        byLength.get(term.length()).add(id);
+        recent.put(term, id);
+        return id;
+    }
+
+    private void mergeRecent() {
+        int[] merged = new int[sorted.length + recent.size()];
+        int i = 0, n = 0;
+        for (int id : recent.values()) {
+            while (i < sorted.length && termText[sorted[i]].compareTo(termText[id]) < 0) merged[n++] = sorted[i++];
+            merged[n++] = id;
+        }
+        while (i < sorted.length) merged[n++] = sorted[i++];
+        sorted = merged;
+        recent.clear();
+    }
+
+    private void rebuild() {
+        String[] oldText = termText;
+        IntList[] oldRolls = rolls;
+        int oldCount = termCount;
+        termIds.clear();
+        trigrams.clear();
+        byLength.clear();
+        recent.clear();
+        sorted = new int[0];
+        termText = new String[Math.max(64, liveTerms * 2)];
+        rolls = new IntList[termText.length];
+        termCount = 0;
+        for (int old = 0; old < oldCount; old++) {
+            if (oldRolls[old].size == 0) continue;
+            rolls[newTerm(oldText[old])] = oldRolls[old];
+        }
+        mergeRecent();
+    }
+
+    public void add(int rollNo, String name, String email) {
+        for (String term : termsOf(name, email)) {
+            Integer id = termIds.get(term);
+            if (id == null) id = newTerm(term);
+            if (rolls[id].size == 0) liveTerms++;
+            rolls[id].add(rollNo);
+        }
+        if (recent.size() > Math.max(256, sorted.length >> 3)) mergeRecent();
+    }
+
+    public void remove(int rollNo, String name, String email) {
+        for (String term : termsOf(name, email)) {
+            Integer id = termIds.get(term);
+            if (id != null && rolls[id].remove(rollNo) && rolls[id].size == 0) liveTerms--;
+        }
+        if (termCount - liveTerms > Math.max(1024, liveTerms)) rebuild();
+    }
+
+    private boolean collect(int id, Set<Integer> result, int limit) {
+        IntList list = rolls[id];
+        for (int i = 0; i < list.size; i++) {
+            result.add(list.items[i]);
+            if (result.size() >= limit) return true;
+        }
+        return false;
+    }
+
+    private int lowerBound(String p) {
+        int lo = 0, hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (termText[sorted[mid]].compareTo(p) < 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    public Set<Integer> prefix(String prefix, int limit) {
+        String p = prefix.trim().toLowerCase();
+        Set<Integer> result = new LinkedHashSet<>();
+        if (p.isEmpty()) return result;
+        Iterator<Map.Entry<String, Integer>> fresh = recent.subMap(p, true, p + Character.MAX_VALUE, false).entrySet().iterator();
+        Map.Entry<String, Integer> next = fresh.hasNext() ? fresh.next() : null;
+        int i = lowerBound(p);
+        while (true) {
+            boolean inSorted = i < sorted.length && termText[sorted[i]].startsWith(p);
+            int id;
+            if (inSorted && (next == null || termText[sorted[i]].compareTo(next.getKey()) < 0)) {
+                id = sorted[i++];
+            } else if (next != null) {
+                id = next.getValue();
+                next = fresh.hasNext() ? fresh.next() : null;
+            } else {
+                break;
+            }
+            if (collect(id, result, limit)) return result;
+        }
+        return result;
+    }
+
+    public Set<Integer> fuzzy(String query, int maxEdits, int limit) {
+        String q = query.trim().toLowerCase();
+        Set<Integer> result = new LinkedHashSet<>();
+        if (q.isEmpty()) return result;
+        long[] grams = gramsOf(q);
+        int needed = grams.length - 3 * maxEdits;
+        BitSet candidates = new BitSet(termCount);
+        if (needed <= 0) {
+            for (int len = Math.max(0, q.length() - maxEdits); len <= q.length() + maxEdits && len < byLength.size(); len++) {
+                IntList ids = byLength.get(len);
+                for (int i = 0; i < ids.size; i++) candidates.set(ids.items[i]);
+            }
+        } else {
+            IntList none = new IntList();
+            List<IntList> postings = new ArrayList<>(grams.length);
+            for (long g : grams) postings.add(trigrams.getOrDefault(g, none));
+            postings.sort(Comparator.comparingInt(l -> l.size));
+            for (IntList posting : postings.subList(0, grams.length - needed + 1)) {
+                for (int i = 0; i < posting.size; i++) candidates.set(posting.items[i]);
+            }
+        }
+        List<String> matches = new ArrayList<>();
+        for (int id = candidates.nextSetBit(0); id >= 0; id = candidates.nextSetBit(id + 1)) {
+            String term = termText[id];
+            if (rolls[id].size > 0 && Math.abs(term.length() - q.length()) <= maxEdits
+                    && editDistance(q, term, maxEdits) <= maxEdits) {
+                matches.add(term);
+            }
+        }
+        matches.sort(Comparator.comparingInt((String t) -> editDistance(q, t, maxEdits)).thenComparing(t -> t));
+        for (String term : matches) {
+            if (collect(termIds.get(term), result, limit)) return result;
+        }
+        return result;
+    }
+
+    static int editDistance(String a, String b, int max) {
+        int[] prev = new int[b.length() + 1], cur = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) prev[j] = j;
+        for (int i = 1; i <= a.length(); i++) {
+            cur[0] = i;
+            int rowMin = cur[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                cur[j] = Math.min(Math.min(cur[j - 1] + 1, prev[j] + 1), prev[j - 1] + cost);
+                rowMin = Math.min(rowMin, cur[j]);
+            }
+            if (rowMin > max) return max + 1;
+            int[] t = prev;
+            prev = cur;
+            cur = t;
+        }
+        return prev[b.length()];
+    }
+}
+
+class StudentChange {
+    public static final byte ADDED = 1, UPDATED = 2, DELETED = 3;
+
+    byte type;
+    int rollNo;
+    double marks;
+    String grade;
+
+    public byte type() {
+        return type;
+    }
+
+    public int rollNo() {
+        return rollNo;
+    }
+
+    public double marks() {
+        return marks;
+    }
+
+    public String grade() {
+        return grade;
+    }
+}
+
+interface StudentChangeHandler {
+    void onChange(StudentChange change, long sequence, boolean endOfBatch);
+}
+
+class StudentChangeStream {
+    static class Consumer {
+        private final StudentChangeStream stream;
+        final AtomicLong sequence;
+
+        Consumer(StudentChangeStream stream, long start) {
+            this.stream = stream;
+            this.sequence = new AtomicLong(start);
+        }
+
+        public int poll(StudentChangeHandler handler, int maxBatch) {
+            long from = sequence.get() + 1;
+            long available = Math.min(stream.cursor.get(), from + maxBatch - 1);
+            for (long seq = from; seq <= available; seq++) {
+                handler.onChange(stream.slots[(int) (seq & stream.mask)], seq, seq == available);
+            }
+            if (available >= from) sequence.lazySet(available);
+            return (int) Math.max(0, available - from + 1);
+        }
+
+        public long lag() {
+            return stream.cursor.get() - sequence.get();
+        }
+    }
+
+    private final StudentChange[] slots;
+    private final int mask;
+    private final AtomicLong cursor = new AtomicLong(-1);
+    private volatile Consumer[] consumers = new Consumer[0];
+    private long next = 0;
+    private long cachedGate = -1;
+
+    public StudentChangeStream(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) * 2 - 1);
+        slots = new StudentChange[size];
+        for (int i = 0; i < size; i++) slots[i] = new StudentChange();
+        mask = size - 1;
+    }
+
+    public synchronized Consumer subscribe() {
+        Consumer c = new Consumer(this, cursor.get());
+        Consumer[] current = consumers;
+        Consumer[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = c;
+        consumers = updated;
+        return c;
+    }
+
+    public synchronized void unsubscribe(Consumer c) {
+        List<Consumer> remaining = new ArrayList<>(Arrays.asList(consumers));
+        remaining.remove(c);
+        consumers = remaining.toArray(new Consumer[0]);
+    }
+
+    private long minimumConsumed() {
+        long min = Long.MAX_VALUE;
+        for (Consumer c : consumers) min = Math.min(min, c.sequence.get());
+        return min;
+    }
+
+    public void publish(byte type, int rollNo, double marks, String grade) {
+        long seq = next++;
+        long wrap = seq - slots.length;
+        if (wrap > cachedGate) {
+            long gate;
+            while (wrap > (gate = minimumConsumed())) {
+                LockSupport.parkNanos(1_000);
+            }
+            if (gate != Long.MAX_VALUE) cachedGate = gate;
+        }
+        StudentChange slot = slots[(int) (seq & mask)];
+        slot.type = type;
+        slot.rollNo = rollNo;
+        slot.marks = marks;
+        slot.grade = grade;
+        cursor.lazySet(seq);
+    }
+
+    public long published() {
+        return cursor.get() + 1;
+    }
+}
+
+enum SortKey {
+    ROLL_NO(Comparator.comparingInt(Student::getRollNo)),
+    NAME(((Comparator<Student>) Person::compareNames).thenComparingInt(Student::getRollNo)),
+    MARKS(Comparator.comparingDouble(Student::getMarks).reversed().thenComparingInt(Student::getRollNo));
+
+    final Comparator<Student> order;
+
+    SortKey(Comparator<Student> order) {
+        this.order = order;
+    }
+}
+
+class PageCursor {
+    final SortKey key;
+    final int rollNo;
+    final double marks;
+    final String name;
+
+    PageCursor(SortKey key, Student last) {
+        this(key, last.getRollNo(), last.getMarks(), last.getName());
+    }
+
+    PageCursor(SortKey key, int rollNo, double marks, String name) {
+        this.key = key;
+        this.rollNo = rollNo;
+        this.marks = marks;
+        this.name = name;
+    }
+
+    Student probe() {
+        return new Student(rollNo, name, null, null, marks, null);
+    }
+
+    public String encode() {
+        return key + ":" + rollNo + ":" + marks + ":" + (name == null ? "" : name);
+    }
+
+    public static PageCursor decode(String token) {
+        String[] f = token.split(":", 4);
+        if (f.length != 4) throw new IllegalArgumentException("Invalid page cursor: " + token);
+        return new PageCursor(SortKey.valueOf(f[0]), Integer.parseInt(f[1]), Double.parseDouble(f[2]), f[3]);
+    }
+}
+
+class StudentPage {
+    final List<Student> students;
+    final PageCursor next;
+
+    StudentPage(List<Student> students, PageCursor next) {
+        this.students = students;
+        this.next = next;
+    }
+
+    public void writeTo(Appendable out) throws IOException {
+        StringBuilder sb = new StringBuilder(students.size() * 128);
+        for (Student s : students) s.appendInfo(sb);
+        out.append(sb);
+    }
+}
+
+class Leaderboard {
+    private static class Node {
+        final double marks;
+        final int rollNo;
+        final int priority;
+        int size = 1;
+        Node left, right;
+
+        Node(double marks, int rollNo, int priority) {
+            this.marks = marks;
+            this.rollNo = rollNo;
+            this.priority = priority;
+        }
+    }
+
+    private final Random random = new Random();
+    private Node root;
+
+    private static int size(Node n) {
+        return n == null ? 0 : n.size;
+    }
+
+    private static Node pull(Node n) {
+        n.size = 1 + size(n.left) + size(n.right);
+        return n;
+    }
+
+    private static int compare(double marksA, int rollA, double marksB, int rollB) {
+        int c = Double.compare(marksB, marksA);
+        return c != 0 ? c : Integer.compare(rollA, rollB);
+    }
+
+    private static Node merge(Node a, Node b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        if (a.priority > b.priority) {
+            a.right = merge(a.right, b);
+            return pull(a);
+        }
+        b.left = merge(a, b.left);
+        return pull(b);
+    }
+
+    private static Node[] split(Node n, double marks, int rollNo) {
+        if (n == null) return new Node[2];
+        if (compare(n.marks, n.rollNo, marks, rollNo) < 0) {
+            Node[] parts = split(n.right, marks, rollNo);
+            n.right = parts[0];
+            parts[0] = pull(n);
+            return parts;
+        }
+        Node[] parts = split(n.left, marks, rollNo);
+        n.left = parts[1];
+        parts[1] = pull(n);
+        return parts;
+    }
+
+    public void add(int rollNo, double marks) {
+        Node[] parts = split(root, marks, rollNo);
+        root = merge(merge(parts[0], new Node(marks, rollNo, random.nextInt())), parts[1]);
+    }
+
+    public void remove(int rollNo, double marks) {
+        root = remove(root, marks, rollNo);
+    }
+
+    private static Node remove(Node n, double marks, int rollNo) {
+        if (n == null) return null;
+        int c = compare(marks, rollNo, n.marks, n.rollNo);
+        if (c == 0) return merge(n.left, n.right);
+        if (c < 0) n.left = remove(n.left, marks, rollNo);
+        else n.right = remove(n.right, marks, rollNo);
+        return pull(n);
+    }
+
+    public int size() {
+        return size(root);
+    }
+
+    public int rank(int rollNo, double marks) {
+        int rank = 0;
+        Node n = root;
+        while (n != null) {
+            int c = compare(marks, rollNo, n.marks, n.rollNo);
+            if (c == 0) return rank + size(n.left) + 1;
+            if (c < 0) {
+                n = n.left;
+            } else {
+                rank += size(n.left) + 1;
+                n = n.right;
+            }
+        }
+        return 0;
+    }
+
+    public double percentile(int rollNo, double marks) {
+        int rank = rank(rollNo, marks);
+        return rank == 0 ? 0.0 : (size() - rank) * 100.0 / size();
+    }
+
+    public List<Integer> top(int k) {
+        List<Integer> result = new ArrayList<>(Math.max(0, Math.min(k, size())));
+        Deque<Node> stack = new ArrayDeque<>();
+        Node n = root;
+        while ((n != null || !stack.isEmpty()) && result.size() < k) {
+            while (n != null) {
+                stack.push(n);
+                n = n.left;
+            }
+            n = stack.pop();
+            result.add(n.rollNo);
+            n = n.right;
+        }
+        return result;
+    }
+}
+
+class StudentManager implements RecordActions {
+    private Map<Integer, Student> studentMap = new HashMap<>();
+    private Map<Integer, Set<Integer>> courseIndex = new HashMap<>();
+    private Map<Integer, Set<Integer>> gradeIndex = new HashMap<>();
+    private TreeMap<Double, Set<Integer>> marksIndex = new TreeMap<>();
+    private Leaderboard leaderboard = new Leaderboard();
+    private EnumMap<SortKey, TreeSet<Student>> sortedViews = new EnumMap<>(SortKey.class);
+    private Map<Integer, CourseStats> courseStats = new HashMap<>();
+    private CourseStats overallStats = new CourseStats();
+    private StudentSearchIndex searchIndex = new StudentSearchIndex();
+    private StudentChangeStream changes = new StudentChangeStream(1 << 14);
+
+    private static int courseKey(Student s) {
+        return StringDictionary.COURSES.fold(s.getCourseCode());
+    }
+
+    private static int gradeKey(Student s) {
+        return StringDictionary.GRADES.fold(s.getGradeCode());
+    }
+
+    private static <K> void indexAdd(Map<K, Set<Integer>> index, K key, int rollNo) {
+        index.computeIfAbsent(key, k -> new HashSet<>()).add(rollNo);
+    }
+
+    private static <K> void indexRemove(Map<K, Set<Integer>> index, K key, int rollNo) {
+        Set<Integer> rolls = index.get(key);
+        if (rolls != null && rolls.remove(rollNo) && rolls.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
+    private void index(Student s) {
+        indexAdd(courseIndex, courseKey(s), s.getRollNo());
+        indexAdd(gradeIndex, gradeKey(s), s.getRollNo());
+        indexAdd(marksIndex, s.getMarks(), s.getRollNo());
+        leaderboard.add(s.getRollNo(), s.getMarks());
+        for (TreeSet<Student> view : sortedViews.values()) view.add(s);
+        courseStats.computeIfAbsent(courseKey(s), k -> new CourseStats()).add(s.getMarks(), s.getGrade());
+        overallStats.add(s.getMarks(), s.getGrade());
+    }
+
+    private void unindex(Student s) {
+        indexRemove(courseIndex, courseKey(s), s.getRollNo());
+        indexRemove(gradeIndex, gradeKey(s), s.getRollNo());
+        indexRemove(marksIndex, s.getMarks(), s.getRollNo());
+        leaderboard.remove(s.getRollNo(), s.getMarks());
+        for (TreeSet<Student> view : sortedViews.values()) view.remove(s);
+        CourseStats stats = courseStats.get(courseKey(s));
+        stats.remove(s.getMarks(), s.getGrade());
+        if (stats.count() == 0) courseStats.remove(courseKey(s));
+        overallStats.remove(s.getMarks(), s.getGrade());
+    }
+
+    private List<Student> resolve(Collection<Integer> rolls) {
+        List<Student> result = new ArrayList<>(rolls.size());
+        for (int roll : rolls) {
+            result.add(studentMap.get(roll));
+        }
+        return result;
+    }
+
+    public List<Student> findByCourse(String course) {
+        return resolve(courseIndex.getOrDefault(StringDictionary.COURSES.foldedCodeOf(course), Collections.emptySet()));
+    }
+
+    public List<Student> findByGrade(String grade) {
+        return resolve(gradeIndex.getOrDefault(StringDictionary.GRADES.foldedCodeOf(grade), Collections.emptySet()));
+    }
+
+    public List<Student> findByMarksRange(double min, double max) {
+        List<Student> result = new ArrayList<>();
+        if (min > max) return result;
+        for (Set<Integer> rolls : marksIndex.subMap(min, true, max, true).values()) {
+            result.addAll(resolve(rolls));
+        }
+        return result;
+    }
+
+    private TreeSet<Student> sortedView(SortKey key) {
+        TreeSet<Student> view = sortedViews.get(key);
+        if (view == null) {
+            view = new TreeSet<>(key.order);
+            view.addAll(studentMap.values());
+            sortedViews.put(key, view);
+        }
+        return view;
+    }
+
+    public StudentPage page(SortKey key, PageCursor after, int size) {
+        if (size <= 0) throw new IllegalArgumentException("Page size must be positive: " + size);
+        if (after != null && after.key != key) throw new IllegalArgumentException("Cursor belongs to " + after.key + " order");
+        NavigableSet<Student> view = sortedView(key);
+        if (after != null) view = view.tailSet(after.probe(), false);
+        List<Student> students = new ArrayList<>(Math.min(size, view.size()));
+        Iterator<Student> it = view.iterator();
+        while (students.size() < size && it.hasNext()) students.add(it.next());
+        PageCursor next = it.hasNext() ? new PageCursor(key, students.get(students.size() - 1)) : null;
+        return new StudentPage(students, next);
+    }
+
+    public void exportRoster(SortKey key, Writer out, int pageSize) throws IOException {
+        PageCursor cursor = null;
+        do {
+            StudentPage page = page(key, cursor, pageSize);
+            page.writeTo(out);
+            cursor = page.next;
+        } while (cursor != null);
+        out.flush();
+    }
+
+    public List<Student> searchByPrefix(String prefix, int limit) {
+        return resolve(searchIndex.prefix(prefix, limit));
+    }
+
+    public List<Student> fuzzySearch(String query, int maxEdits, int limit) {
+        return resolve(searchIndex.fuzzy(query, maxEdits, limit));
+    }
+
+    public StudentChangeStream changeStream() {
+        return changes;
+    }
+
+    public int size() {
+        return studentMap.size();
+    }
+
+    public CourseStats statsForCourse(String course) {
+        return courseStats.get(StringDictionary.COURSES.foldedCodeOf(course));
+    }
+
+    public CourseStats overallStats() {
+        return overallStats;
+    }
+
+    public List<Student> topStudents(int k) {
+        return resolve(leaderboard.top(k));
+    }
+
+    public int rankOf(int rollNo) {
+        Student s = studentMap.get(rollNo);
+        return s == null ? 0 : leaderboard.rank(rollNo, s.getMarks());
+    }
+
+    public double percentileOf(int rollNo) {
+        Student s = studentMap.get(rollNo);
+        return s == null ? 0.0 : leaderboard.percentile(rollNo, s.getMarks());
+    }
+
+    public boolean insert(Student student) {
+        if (studentMap.putIfAbsent(student.getRollNo(), student) != null) return false;
+        index(student);
+        searchIndex.add(student.getRollNo(), student.getName(), student.getEmail());
+        changes.publish(StudentChange.ADDED, student.getRollNo(), student.getMarks(), student.getGrade());
+        return true;
+    }
+
+    public List<Student> addStudents(List<Student> batch) {
+        List<Student> duplicates = new ArrayList<>();
+        for (Student s : batch) {
+            if (!insert(s)) duplicates.add(s);
+        }
+        return duplicates;
+    }
+
+    @Override
+    public void addStudent(Student student) {
+        if (insert(student)) {
+            System.out.println("Student added successfully.\n");
+        } else {
+            System.out.println("Duplicate roll number! Cannot add student.\n");
+        }
+    }
+
+    public boolean remove(int rollNo) {
+        Student removed = studentMap.remove(rollNo);
+        if (removed == null) return false;
+        unindex(removed);
+        searchIndex.remove(rollNo, removed.getName(), removed.getEmail());
+        changes.publish(StudentChange.DELETED, rollNo, removed.getMarks(), removed.getGrade());
+        return true;
+    }
+
+    public boolean update(int rollNo, double newMarks, String newGrade) {
+        Student student = studentMap.get(rollNo);
+        if (student == null) return false;
+        unindex(student);
+        student.setMarks(newMarks);
+        student.setGrade(newGrade);
+        index(student);
+        changes.publish(StudentChange.UPDATED, rollNo, newMarks, newGrade);
+        return true;
+    }
+
+    Collection<Student> students() {
+        return studentMap.values();
+    }
+
+    protected void regrade(Student s, String grade) {
+        courseStats.get(courseKey(s)).regrade(s.getGrade(), grade);
+        overallStats.regrade(s.getGrade(), grade);
+        indexRemove(gradeIndex, gradeKey(s), s.getRollNo());
+        s.setGrade(grade);
+        indexAdd(gradeIndex, gradeKey(s), s.getRollNo());
+        changes.publish(StudentChange.UPDATED, s.getRollNo(), s.getMarks(), grade);
+    }
+
+    public int regradeAll(GradingPolicy policy) {
+        Student[] all = studentMap.values().toArray(new Student[0]);
+        int[] next = new int[all.length];
+        IntStream.range(0, all.length).parallel().forEach(i -> next[i] = policy.gradeIndex(all[i].getMarks()));
+        int[] codes = new int[policy.gradeCount()];
+        for (int g = 0; g < codes.length; g++) codes[g] = StringDictionary.GRADES.encode(policy.grade(g));
+        int changed = 0;
+        for (int i = 0; i < all.length; i++) {
+            if (codes[next[i]] != all[i].getGradeCode()) {
+                regrade(all[i], policy.grade(next[i]));
+                changed++;
+            }
+        }
+        return changed;
+    }
+
+    @Override
+    public void deleteStudent(int rollNo) {
+        if (remove(rollNo)) {
+            System.out.println("Student with Roll No " + rollNo + " deleted successfully.\n");
+        } else {
+            System.out.println("No student found with Roll No " + rollNo + ".\n");
+        }
+    }
+
+    @Override
+    public void updateStudent(int rollNo, double newMarks, String newGrade) {
+        if (update(rollNo, newMarks, newGrade)) {
+            System.out.println("Student record updated successfully.\n");
+        } else {
+            System.out.println("Student not found.\n");
+        }
+    }
+
+    @Override
+    public Student searchStudent(int rollNo) {
+        return studentMap.get(rollNo);
+    }
+
+    @Override
+    public void viewAllStudents() {
+        if (studentMap.isEmpty()) {
+            System.out.println("No student records found.\n");
+            return;
+        }
+        PageCursor cursor = null;
+        do {
+            StudentPage page = page(SortKey.ROLL_NO, cursor, 1000);
+            try {
+                page.writeTo(System.out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            cursor = page.next;
+        } while (cursor != null);
+    }
+
+    public void viewAllStudents(boolean showCount) {
+        viewAllStudents();
+        if (showCount) {
+            System.out.println("Total Students: " + studentMap.size() + "\n");
+        }
+    }
+}
+
+class PersistentStudentManager extends StudentManager implements AutoCloseable {
+    private static final byte ADD = 1, UPDATE = 2, DELETE = 3;
+    private static final int SNAPSHOT_MAGIC = 0x53545544;
+    private static final int MAX_RECORD = 1 << 20;
+
+    private final Path dir;
+    private final int compactEvery;
+    private final AtomicBoolean compacting = new AtomicBoolean();
+    private final ByteArrayOutputStream recordBytes = new ByteArrayOutputStream(256);
+    private final DataOutputStream record = new DataOutputStream(recordBytes);
+    private final CRC32 crc = new CRC32();
+    private long generation;
+    private FileChannel logChannel;
+    private DataOutputStream log;
+    private int recordsInLog;
+    private Thread compactor;
+
+    public PersistentStudentManager(Path dir) throws IOException {
+        this(dir, 100_000);
+    }
+
+    public PersistentStudentManager(Path dir, int compactEvery) throws IOException {
+        this.dir = dir;
+        this.compactEvery = compactEvery;
+        Files.createDirectories(dir);
+        long snapshotGeneration = loadSnapshot();
+        long last = snapshotGeneration - 1;
+        for (long gen : logGenerations()) {
+            if (gen < snapshotGeneration) continue;
+            if (Files.size(logPath(gen)) == 0) {
+                Files.delete(logPath(gen));
+                continue;
+            }
+            replay(logPath(gen));
+            last = gen;
+        }
+        generation = Math.max(snapshotGeneration, last + 1);
+        log = openLog(generation);
+    }
+
+    private Path logPath(long gen) {
+        return dir.resolve(String.format("students-%012d.log", gen));
+    }
+
+    private Path snapshotPath() {
+        return dir.resolve("students.snap");
+    }
+
+    private List<Long> logGenerations() throws IOException {
+        List<Long> gens = new ArrayList<>();
+        try (var files = Files.list(dir)) {
+            files.map(p -> p.getFileName().toString())
+                 .filter(n -> n.startsWith("students-") && n.endsWith(".log"))
+                 .forEach(n -> gens.add(Long.parseLong(n.substring(9, n.length() - 4))));
+        }
+        Collections.sort(gens);
+        return gens;
+    }
+
+    private DataOutputStream openLog(long gen) throws IOException {
+        logChannel = FileChannel.open(logPath(gen), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        return new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(logChannel), 1 << 16));
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        if (s == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(b.length);
+        out.write(b);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int len = in.getInt();
+        if (len < 0) return null;
+        byte[] b = new byte[len];
+        in.get(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    // Each record reaches the OS before the mutation is applied, which survives a process crash.
+    // Surviving an OS crash or power loss needs sync(), which runs on rotation, on close and after
+    // every interactive command; batch and import callers get it at close.
+    private void append() {
+        if (recordBytes.size() > MAX_RECORD) {
+            recordBytes.reset();
+            throw new IllegalArgumentException("Student record is too large (over " + MAX_RECORD + " bytes)");
+        }
+        try {
+            crc.reset();
+            crc.update(recordBytes.toByteArray(), 0, recordBytes.size());
+            log.writeInt(recordBytes.size());
+            log.writeInt((int) crc.getValue());
+            recordBytes.writeTo(log);
+            log.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write student log", e);
+        } finally {
+            recordBytes.reset();
+        }
+        recordsInLog++;
+    }
+
+    public void sync() {
+        try {
+            log.flush();
+            logChannel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not sync student log", e);
+        }
+    }
+
+    private void maybeCompact() {
+        if (recordsInLog >= compactEvery) compactInBackground();
+    }
+
+    private void replay(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            CRC32 check = new CRC32();
+            while (true) {
+                int len, sum;
+                byte[] payload;
+                try {
+                    len = in.readInt();
+                    sum = in.readInt();
+                    if (len <= 0 || len > MAX_RECORD) return;
+                    payload = new byte[len];
+                    in.readFully(payload);
+                } catch (EOFException e) {
+                    return;
+                }
+                check.reset();
+                check.update(payload);
+                if ((int) check.getValue() != sum) return;
+                apply(ByteBuffer.wrap(payload));
+            }
+        }
+    }
+
+    private void apply(ByteBuffer r) {
+        byte op = r.get();
+        int rollNo = r.getInt();
+        if (op == ADD) {
+            double marks = r.getDouble();
+            String name = readString(r), email = readString(r), course = readString(r), grade = readString(r);
+            super.insert(new Student(rollNo, name, email, course, marks, grade));
+        } else if (op == UPDATE) {
+            double marks = r.getDouble();
+            super.update(rollNo, marks, readString(r));
+        } else if (op == DELETE) {
+            super.remove(rollNo);
+        }
+    }
+
+    private long loadSnapshot() throws IOException {
+        Path snap = snapshotPath();
+        if (!Files.exists(snap)) return 0;
+        try (FileChannel ch = FileChannel.open(snap, StandardOpenOption.READ)) {
+            MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+            if (buf.getInt() != SNAPSHOT_MAGIC) throw new IOException("Not a student snapshot: " + snap);
+            long gen = buf.getLong();
+            int count = buf.getInt();
+            int sum = buf.getInt();
+            CRC32 check = new CRC32();
+            check.update(buf.duplicate());
+            if ((int) check.getValue() != sum) throw new IOException("Corrupt student snapshot: " + snap);
+            for (int i = 0; i < count; i++) {
+                int rollNo = buf.getInt();
+                double marks = buf.getDouble();
+                String name = readString(buf), email = readString(buf), course = readString(buf), grade = readString(buf);
+                super.insert(new Student(rollNo, name, email, course, marks, grade));
+            }
+            return gen;
+        }
+    }
+
+    private static ByteArrayOutputStream serialize(Student[] roster, double[] marks, int[] grades) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream(roster.length * 64);
+        DataOutputStream out = new DataOutputStream(body);
+        for (int i = 0; i < roster.length; i++) {
+            Student s = roster[i];
+            out.writeInt(s.getRollNo());
+            out.writeDouble(marks[i]);
+            writeString(out, s.getName());
+            writeString(out, s.getEmail());
+            writeString(out, s.getCourse());
+            writeString(out, StringDictionary.GRADES.decode(grades[i]));
+        }
+        return body;
+    }
+
+    private void compactInBackground() {
+        if (!compacting.compareAndSet(false, true)) return;
+        Student[] roster = students().toArray(new Student[0]);
+        double[] marks = new double[roster.length];
+        int[] grades = new int[roster.length];
+        for (int i = 0; i < roster.length; i++) {
+            marks[i] = roster[i].getMarks();
+            grades[i] = roster[i].getGradeCode();
+        }
+        try {
+            log.flush();
+            logChannel.force(false);
+            log.close();
+            long covered = ++generation;
+            log = openLog(generation);
+            recordsInLog = 0;
+            compactor = new Thread(() -> {
+                try {
+                    writeSnapshot(serialize(roster, marks, grades), roster.length, covered);
+                } catch (IOException e) {
+                    System.out.println("Snapshot failed: " + e.getMessage());
+                } finally {
+                    compacting.set(false);
+                }
+            }, "student-compactor");
+            compactor.setDaemon(true);
+            compactor.start();
+        } catch (IOException e) {
+            compacting.set(false);
+            throw new UncheckedIOException("Could not rotate student log", e);
+        }
+    }
+
+    private void writeSnapshot(ByteArrayOutputStream body, int count, long covered) throws IOException {
+        CRC32 check = new CRC32();
+        byte[] bytes = body.toByteArray();
+        check.update(bytes);
+        Path tmp = dir.resolve("students.snap.tmp");
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(20);
+            header.putInt(SNAPSHOT_MAGIC).putLong(covered).putInt(count).putInt((int) check.getValue()).flip();
+            while (header.hasRemaining()) ch.write(header);
+            ByteBuffer data = ByteBuffer.wrap(bytes);
+            while (data.hasRemaining()) ch.write(data);
+            ch.force(true);
+        }
+        Files.move(tmp, snapshotPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        for (long gen : logGenerations()) {
+            if (gen < covered) Files.deleteIfExists(logPath(gen));
+        }
+    }
+
+    public void compact() {
+        compactInBackground();
+        awaitCompaction();
+    }
+
+    private void awaitCompaction() {
+        Thread t = compactor;
+        if (t == null) return;
+        try {
+            t.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean insert(Student student) {
+        if (searchStudent(student.getRollNo()) != null) return false;
+        try {
+            record.writeByte(ADD);
+            record.writeInt(student.getRollNo());
+            record.writeDouble(student.getMarks());
+            writeString(record, student.getName());
+            writeString(record, student.getEmail());
+            writeString(record, student.getCourse());
+            writeString(record, student.getGrade());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        append();
+        boolean added = super.insert(student);
+        maybeCompact();
+        return added;
+    }
+
+    private void logUpdate(int rollNo, double newMarks, String newGrade) {
+        try {
+            record.writeByte(UPDATE);
+            record.writeInt(rollNo);
+            record.writeDouble(newMarks);
+            writeString(record, newGrade);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        append();
+    }
+
+    @Override
+    public boolean update(int rollNo, double newMarks, String newGrade) {
+        if (searchStudent(rollNo) == null) return false;
+        logUpdate(rollNo, newMarks, newGrade);
+        boolean updated = super.update(rollNo, newMarks, newGrade);
+        maybeCompact();
+        return updated;
+    }
+
+    @Override
+    protected void regrade(Student s, String grade) {
+        logUpdate(s.getRollNo(), s.getMarks(), grade);
+        super.regrade(s, grade);
+        maybeCompact();
+    }
+
+    @Override
+    public boolean remove(int rollNo) {
+        if (searchStudent(rollNo) == null) return false;
+        try {
+            record.writeByte(DELETE);
+            record.writeInt(rollNo);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        append();
+        boolean removed = super.remove(rollNo);
+        maybeCompact();
+        return removed;
+    }
+
+    @Override
+    public void close() throws IOException {
+        awaitCompaction();
+        log.flush();
+        logChannel.force(false);
+        log.close();
+    }
+}
+
+class DiskStudentStore implements AutoCloseable {
+    private static final byte PUT = 1, DELETE = 2;
+    private static final int HEADER = 8;
+    private static final long FREE = -1;
+    private static final long MIN_GARBAGE = 1 << 20;
+
+    private final Path file;
+    private final CRC32 crc = new CRC32();
+    private FileChannel channel;
+    private ByteBuffer readBuffer = ByteBuffer.allocate(512);
+    private long end;
+    private long liveBytes;
+    private int[] keys = new int[1024];
+    private long[] offsets = filled(1024);
+    private int[] lengths = new int[1024];
+    private int size;
+
+    public DiskStudentStore(Path file) throws IOException {
+        this.file = file;
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel), 1 << 16));
+        long pos = 0, length = channel.size();
+        byte[] payload = new byte[512];
+        while (pos + HEADER <= length) {
+            int len = in.readInt();
+            int sum = in.readInt();
+            if (len < 5 || pos + HEADER + len > length) break;
+            if (len > payload.length) payload = new byte[Integer.highestOneBit(len) << 1];
+            in.readFully(payload, 0, len);
+            crc.reset();
+            crc.update(payload, 0, len);
+            if ((int) crc.getValue() != sum) break;
+            int rollNo = ByteBuffer.wrap(payload, 1, 4).getInt();
+            if (payload[0] == PUT) put(rollNo, pos, HEADER + len);
+            else if (payload[0] == DELETE) removeKey(rollNo);
+            else break;
+            pos += HEADER + len;
+        }
+        end = pos;
+        channel.truncate(end);
+    }
+
+    private static long[] filled(int n) {
+        long[] a = new long[n];
+        Arrays.fill(a, FREE);
+        return a;
+    }
+
+    private int slot(int rollNo) {
+        int h = rollNo * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & (offsets.length - 1);
+    }
+
+    private int findSlot(int rollNo) {
+        int mask = offsets.length - 1;
+        for (int i = slot(rollNo); ; i = (i + 1) & mask) {
+            if (offsets[i] == FREE || keys[i] == rollNo) return i;
+        }
+    }
+
+    private void put(int rollNo, long offset, int length) {
+        if ((size + 1) * 2 > offsets.length) {
+            int[] oldKeys = keys, oldLengths = lengths;
+            long[] oldOffsets = offsets;
+            keys = new int[oldKeys.length << 1];
+            offsets = filled(keys.length);
+            lengths = new int[keys.length];
+            for (int i = 0; i < oldOffsets.length; i++) {
+                if (oldOffsets[i] == FREE) continue;
+                int j = findSlot(oldKeys[i]);
+                keys[j] = oldKeys[i];
+                offsets[j] = oldOffsets[i];
+                lengths[j] = oldLengths[i];
+            }
+        }
+        int i = findSlot(rollNo);
+        if (offsets[i] == FREE) size++;
+        else liveBytes -= lengths[i];
+        keys[i] = rollNo;
+        offsets[i] = offset;
+        lengths[i] = length;
+        liveBytes += length;
+    }
+
+    private boolean removeKey(int rollNo) {
+        int i = findSlot(rollNo);
+        if (offsets[i] == FREE) return false;
+        int mask = offsets.length - 1;
+        liveBytes -= lengths[i];
+        offsets[i] = FREE;
+        for (int j = (i + 1) & mask; offsets[j] != FREE; j = (j + 1) & mask) {
+            int home = slot(keys[j]);
+            if (((j - home) & mask) >= ((j - i) & mask)) {
+                keys[i] = keys[j];
+                offsets[i] = offsets[j];
+                lengths[i] = lengths[j];
+                offsets[j] = FREE;
+                i = j;
+            }
+        }
+        size--;
+        return true;
+    }
+
+    private static void putString(ByteBuffer buf, byte[] b) {
+        if (b == null) {
+            buf.putInt(-1);
+        } else {
+            buf.putInt(b.length).put(b);
+        }
+    }
+
+    private static byte[] bytes(String s) {
+        return s == null ? null : s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String getString(ByteBuffer buf) {
+        int len = buf.getInt();
+        if (len < 0) return null;
+        byte[] b = new byte[len];
+        buf.get(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    private void append(ByteBuffer record) throws IOException {
+        crc.reset();
+        crc.update(record.array(), HEADER, record.position() - HEADER);
+        record.putInt(4, (int) crc.getValue()).flip();
+        while (record.hasRemaining()) end += channel.write(record, end);
+    }
+
+    private void maybeCompact() throws IOException {
+        long garbage = end - liveBytes;
+        if (garbage > liveBytes && garbage > MIN_GARBAGE) compact();
+    }
+
+    public void compact() throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".compact");
+        long[] moved = filled(offsets.length);
+        long pos = 0;
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (int i = 0; i < offsets.length; i++) {
+                if (offsets[i] == FREE) continue;
+                for (long copied = 0; copied < lengths[i]; ) {
+                    copied += channel.transferTo(offsets[i] + copied, lengths[i] - copied, out);
+                }
+                moved[i] = pos;
+                pos += lengths[i];
+            }
+            out.force(true);
+        }
+        channel.close();
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        offsets = moved;
+        end = liveBytes = pos;
+    }
+
+    public boolean contains(int rollNo) {
+        return offsets[findSlot(rollNo)] != FREE;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long fileBytes() {
+        return end;
+    }
+
+    public void write(Student s) throws IOException {
+        byte[][] fields = { s.packed(), bytes(s.getCourse()), bytes(s.getGrade()) };
+        int len = 1 + 4 + 8 + 12;
+        for (byte[] f : fields) len += f == null ? 0 : f.length;
+        ByteBuffer record = ByteBuffer.allocate(HEADER + len);
+        record.putInt(len).putInt(0).put(PUT).putInt(s.getRollNo()).putDouble(s.getMarks());
+        for (byte[] f : fields) putString(record, f);
+        long offset = end;
+        append(record);
+        put(s.getRollNo(), offset, HEADER + len);
+        maybeCompact();
+    }
+
+    public boolean delete(int rollNo) throws IOException {
+        if (!contains(rollNo)) return false;
+        ByteBuffer record = ByteBuffer.allocate(HEADER + 5);
+        record.putInt(5).putInt(0).put(DELETE).putInt(rollNo);
+        append(record);
+        removeKey(rollNo);
+        maybeCompact();
+        return true;
+    }
+
+    private void readFully(ByteBuffer buf, long offset) throws IOException {
+        while (buf.hasRemaining()) {
+            if (channel.read(buf, offset + buf.position()) < 0) throw new EOFException("Truncated student record");
+        }
+    }
+
+    private Student readAt(long offset) throws IOException {
+        ByteBuffer body = readBuffer;
+        body.clear().limit((int) Math.min(body.capacity(), end - offset));
+        readFully(body, offset);
+        int len = HEADER + body.flip().getInt();
+        if (len > body.limit()) {
+            if (len > body.capacity()) readBuffer = body = ByteBuffer.allocate(Integer.highestOneBit(len) << 1);
+            body.clear().limit(len);
+            readFully(body, offset);
+            body.flip();
+        }
+        body.position(HEADER + 1);
+        int rollNo = body.getInt();
+        double marks = body.getDouble();
+        byte[] packed = new byte[body.getInt()];
+        body.get(packed);
+        int course = StringDictionary.COURSES.encode(getString(body));
+        int grade = StringDictionary.GRADES.encode(getString(body));
+        return new Student(rollNo, packed, course, marks, grade);
+    }
+
+    public Student read(int rollNo) throws IOException {
+        long offset = offsets[findSlot(rollNo)];
+        return offset == FREE ? null : readAt(offset);
+    }
+
+    public void forEach(Consumer<Student> action) throws IOException {
+        for (int i = 0; i < offsets.length; i++) {
+            if (offsets[i] != FREE) action.accept(readAt(offsets[i]));
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.force(true);
+        channel.close();
+    }
+}
+
+class FrequencySketch {
+    private static final int[] SEEDS = { 0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F };
+
+    private final byte[][] rows = new byte[SEEDS.length][];
+    private final int mask;
+    private final int sampleSize;
+    private int additions;
+
+    FrequencySketch(int expectedEntries) {
+        int width = Integer.highestOneBit(Math.max(64, expectedEntries) * 2 - 1);
+        for (int r = 0; r < rows.length; r++) rows[r] = new byte[width];
+        mask = width - 1;
+        sampleSize = 10 * width;
+    }
+
+    private int index(int key, int row) {
+        int h = key * SEEDS[row];
+        return (h ^ (h >>> 15)) & mask;
+    }
+
+    void increment(int key) {
+        for (int r = 0; r < rows.length; r++) {
+            int i = index(key, r);
+            if (rows[r][i] < 15) rows[r][i]++;
+        }
+        if (++additions >= sampleSize) {
+            for (byte[] row : rows) {
+                for (int i = 0; i < row.length; i++) row[i] >>= 1;
+            }
+            additions /= 2;
+        }
+    }
+
+    int frequency(int key) {
+        int min = 15;
+        for (int r = 0; r < rows.length; r++) min = Math.min(min, rows[r][index(key, r)]);
+        return min;
+    }
+}
+
+class CachedStudentStore implements RecordActions, AutoCloseable {
+    private final DiskStudentStore disk;
+    private final long windowBudget;
+    private final long mainBudget;
+    private final long protectedBudget;
+    private final LinkedHashMap<Integer, Student> window = new LinkedHashMap<>();
+    private final LinkedHashMap<Integer, Student> probation = new LinkedHashMap<>();
+    private final LinkedHashMap<Integer, Student> protectedSegment = new LinkedHashMap<>();
+    private final FrequencySketch sketch;
+    private long windowBytes, probationBytes, protectedBytes;
+    private long hits, misses, evictions;
+
+    public CachedStudentStore(DiskStudentStore disk, long memoryBudgetBytes) {
+        this.disk = disk;
+        this.windowBudget = Math.max(1, memoryBudgetBytes / 100);
+        this.mainBudget = memoryBudgetBytes - windowBudget;
+        this.protectedBudget = mainBudget * 4 / 5;
+        this.sketch = new FrequencySketch((int) Math.min(1 << 24, memoryBudgetBytes / 200));
+    }
+
+    static long weigh(Student s) {
+        // Student (40) + byte[] header (16) + LinkedHashMap entry (40) + Integer key (16); course and grade are shared codes
+        return 112 + ((s.packed().length + 7) & ~7);
+    }
+
+    private static Integer lru(LinkedHashMap<Integer, Student> segment) {
+        return segment.keySet().iterator().next();
+    }
+
+    private Student lookup(int rollNo) {
+        sketch.increment(rollNo);
+        Student s = window.remove(rollNo);
+        if (s != null) {
+            window.put(rollNo, s);
+            return s;
+        }
+        s = protectedSegment.remove(rollNo);
+        if (s != null) {
+            protectedSegment.put(rollNo, s);
+            return s;
+        }
+        s = probation.remove(rollNo);
+        if (s != null) {
+            long w = weigh(s);
+            probationBytes -= w;
+            protectedSegment.put(rollNo, s);
+            protectedBytes += w;
+            while (protectedBytes > protectedBudget) {
+                Student demoted = protectedSegment.remove(lru(protectedSegment));
+                long dw = weigh(demoted);
+                protectedBytes -= dw;
+                probation.put(demoted.getRollNo(), demoted);
+                probationBytes += dw;
+            }
+        }
+        return s;
+    }
+
+    private void admit(Student s) {
+        window.put(s.getRollNo(), s);
+        windowBytes += weigh(s);
+        while (windowBytes > windowBudget && !window.isEmpty()) {
+            Student candidate = window.remove(lru(window));
+            long w = weigh(candidate);
+            windowBytes -= w;
+            while (probationBytes + protectedBytes + w > mainBudget && !(probation.isEmpty() && protectedSegment.isEmpty())) {
+                LinkedHashMap<Integer, Student> from = probation.isEmpty() ? protectedSegment : probation;
+                Integer victim = lru(from);
+                if (sketch.frequency(candidate.getRollNo()) <= sketch.frequency(victim)) break;
+                long vw = weigh(from.remove(victim));
+                if (from == probation) probationBytes -= vw;
+                else protectedBytes -= vw;
+                evictions++;
+            }
+            if (probationBytes + protectedBytes + w <= mainBudget) {
+                probation.put(candidate.getRollNo(), candidate);
+                probationBytes += w;
+            } else {
+                evictions++;
+            }
+        }
+    }
+
+    private void invalidate(int rollNo) {
+        Student s;
+        if ((s = window.remove(rollNo)) != null) windowBytes -= weigh(s);
+        else if ((s = probation.remove(rollNo)) != null) probationBytes -= weigh(s);
+        else if ((s = protectedSegment.remove(rollNo)) != null) protectedBytes -= weigh(s);
+    }
+
+    public Student get(int rollNo) {
+        Student s = lookup(rollNo);
+        if (s != null) {
+            hits++;
+            return s;
+        }
+        misses++;
+        try {
+            s = disk.read(rollNo);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (s != null) admit(s);
+        return s;
+    }
+
+    @Override
+    public void addStudent(Student student) {
+        if (disk.contains(student.getRollNo())) {
+            System.out.println("Duplicate roll number! Cannot add student.\n");
+            return;
+        }
+        try {
+            disk.write(student);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        sketch.increment(student.getRollNo());
+        admit(student);
+        System.out.println("Student added successfully.\n");
+    }
+
+    @Override
+    public void deleteStudent(int rollNo) {
+        boolean deleted;
+        try {
+            deleted = disk.delete(rollNo);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        invalidate(rollNo);
+        if (deleted) {
+            System.out.println("Student with Roll No " + rollNo + " deleted successfully.\n");
+        } else {
+            System.out.println("No student found with Roll No " + rollNo + ".\n");
+        }
+    }
+
+    @Override
+    public void updateStudent(int rollNo, double newMarks, String newGrade) {
+        Student cached = get(rollNo);
+        if (cached == null) {
+            System.out.println("Student not found.\n");
+            return;
+        }
+        Student updated = new Student(rollNo, cached.packed(), cached.getCourseCode(), newMarks,
+                StringDictionary.GRADES.encode(newGrade));
+        try {
+            disk.write(updated);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        invalidate(rollNo);
+        admit(updated);
+        System.out.println("Student record updated successfully.\n");
+    }
+
+    @Override
+    public Student searchStudent(int rollNo) {
+        return get(rollNo);
+    }
+
+    @Override
+    public void viewAllStudents() {
+        if (disk.size() == 0) {
+            System.out.println("No student records found.\n");
+            return;
+        }
+        StringBuilder sb = new StringBuilder(1 << 16);
+        try {
+            disk.forEach(s -> {
+                s.appendInfo(sb);
+                if (sb.length() >= 1 << 16) {
+                    System.out.print(sb);
+                    sb.setLength(0);
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        System.out.print(sb);
+    }
+
+    public long hits() {
+        return hits;
+    }
+
+    public long misses() {
+        return misses;
+    }
+
+    public long evictions() {
+        return evictions;
+    }
+
+    public String stats() {
+        long total = hits + misses;
+        return String.format("hits=%d misses=%d hitRate=%.1f%% evictions=%d cached=%d bytes=%d",
+                hits, misses, total == 0 ? 0.0 : hits * 100.0 / total, evictions,
+                window.size() + probation.size() + protectedSegment.size(), windowBytes + probationBytes + protectedBytes);
+    }
+
+    @Override
+    public void close() throws IOException {
+        disk.close();
+    }
+}
+
+class ColumnarStudentStore implements RecordActions {
+    private static final int FREE = -1;
+
+    private int size;
+    private int[] rollNos = new int[16];
+    private double[] marks = new double[16];
+    private int[] courseIds = new int[16];
+    private int[] gradeIds = new int[16];
+    private int[] textAt = new int[16];
+    private int[] textLen = new int[16];
+
+    private byte[] text = new byte[1024];
+    private int textSize;
+    private int textGarbage;
+
+    private int[] slotRows = filled(32);
+
+    private static int[] filled(int n) {
+        int[] a = new int[n];
+        Arrays.fill(a, FREE);
+        return a;
+    }
+
+    private int slot(int rollNo) {
+        int h = rollNo * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & (slotRows.length - 1);
+    }
+
+    private int findSlot(int rollNo) {
+        int mask = slotRows.length - 1;
+        for (int i = slot(rollNo); ; i = (i + 1) & mask) {
+            if (slotRows[i] == FREE || rollNos[slotRows[i]] == rollNo) return i;
+        }
+    }
+
+    private int rowOf(int rollNo) {
+        return slotRows[findSlot(rollNo)];
+    }
+
+    private void removeSlot(int i) {
+        int mask = slotRows.length - 1;
+        slotRows[i] = FREE;
+        for (int j = (i + 1) & mask; slotRows[j] != FREE; j = (j + 1) & mask) {
+            int home = slot(rollNos[slotRows[j]]);
+            if (((j - home) & mask) >= ((j - i) & mask)) {
+                slotRows[i] = slotRows[j];
+                slotRows[j] = FREE;
+                i = j;
+            }
+        }
+    }
+
+    private void ensureCapacity() {
+        if (size == rollNos.length) {
+            int cap = rollNos.length << 1;
+            rollNos = Arrays.copyOf(rollNos, cap);
+            marks = Arrays.copyOf(marks, cap);
+            courseIds = Arrays.copyOf(courseIds, cap);
+            gradeIds = Arrays.copyOf(gradeIds, cap);
+            textAt = Arrays.copyOf(textAt, cap);
+            textLen = Arrays.copyOf(textLen, cap);
+        }
+        if ((size + 1) * 2 > slotRows.length) {
+            slotRows = filled(slotRows.length << 1);
+            for (int row = 0; row < size; row++) {
+                int i = findSlot(rollNos[row]);
+                slotRows[i] = row;
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long textBytes() {
+        return text.length;
+    }
+
+    private void compactText() {
+        byte[] next = new byte[Math.max(1024, (textSize - textGarbage) * 2)];
+        int pos = 0;
+        for (int row = 0; row < size; row++) {
+            System.arraycopy(text, textAt[row], next, pos, textLen[row]);
+            textAt[row] = pos;
+            pos += textLen[row];
+        }
+        text = next;
+        textSize = pos;
+        textGarbage = 0;
+    }
+
+    private int appendText(byte[] packed) {
+        if (textSize + packed.length > text.length) {
+            if (textGarbage > textSize / 2) compactText();
+            if (textSize + packed.length > text.length) {
+                text = Arrays.copyOf(text, Math.max(text.length << 1, textSize + packed.length));
+            }
+        }
+        System.arraycopy(packed, 0, text, textSize, packed.length);
+        textSize += packed.length;
+        return textSize - packed.length;
+    }
+
+    private boolean add(int rollNo, byte[] packed, int course, double mark, int grade) {
+        ensureCapacity();
+        int i = findSlot(rollNo);
+        if (slotRows[i] != FREE) return false;
+        slotRows[i] = size;
+        rollNos[size] = rollNo;
+        textAt[size] = appendText(packed);
+        textLen[size] = packed.length;
+        courseIds[size] = course;
+        marks[size] = mark;
+        gradeIds[size] = grade;
+        size++;
+        return true;
+    }
+
+    public boolean add(int rollNo, String name, String email, String course, double mark, String grade) {
+        return add(rollNo, Person.pack(name, email), StringDictionary.COURSES.encode(course), mark,
+                StringDictionary.GRADES.encode(grade));
+    }
+
+    @Override
+    public void addStudent(Student student) {
+        if (add(student.getRollNo(), student.packed(), student.getCourseCode(), student.getMarks(), student.getGradeCode())) {
+            System.out.println("Student added successfully.\n");
+        } else {
+            System.out.println("Duplicate roll number! Cannot add student.\n");
+        }
+    }
+
+    @Override
+    public void deleteStudent(int rollNo) {
+        int i = findSlot(rollNo);
+        int row = slotRows[i];
+        if (row == FREE) {
+            System.out.println("No student found with Roll No " + rollNo + ".\n");
+            return;
+        }
+        removeSlot(i);
+        textGarbage += textLen[row];
+        int last = --size;
+        if (row != last) {
+            rollNos[row] = rollNos[last];
+            textAt[row] = textAt[last];
+            textLen[row] = textLen[last];
+            courseIds[row] = courseIds[last];
+            marks[row] = marks[last];
+            gradeIds[row] = gradeIds[last];
+            slotRows[findSlot(rollNos[row])] = row;
+        }
+        if (textGarbage > textSize / 2) compactText();
+        System.out.println("Student with Roll No " + rollNo + " deleted successfully.\n");
+    }
+
+    @Override
+    public void updateStudent(int rollNo, double newMarks, String newGrade) {
+        int row = rowOf(rollNo);
+        if (row == FREE) {
+            System.out.println("Student not found.\n");
+            return;
+        }
+        marks[row] = newMarks;
+        gradeIds[row] = StringDictionary.GRADES.encode(newGrade);
+        System.out.println("Student record updated successfully.\n");
+    }
+
+    @Override
+    public Student searchStudent(int rollNo) {
+        int row = rowOf(rollNo);
+        if (row == FREE) return null;
+        byte[] packed = Arrays.copyOfRange(text, textAt[row], textAt[row] + textLen[row]);
+        return new Student(rollNos[row], packed, courseIds[row], marks[row], gradeIds[row]);
+    }
+
+    @Override
+    public void viewAllStudents() {
+        if (size == 0) {
+            System.out.println("No student records found.\n");
+            return;
+        }
+        StringBuilder sb = new StringBuilder(1 << 16);
+        for (int row = 0; row < size; row++) {
+            sb.append("Student Info:\n")
+              .append("Roll No: ").append(rollNos[row]).append('\n')
+              .append("Name: ").append(Person.nameOf(text, textAt[row])).append('\n')
+              .append("Email: ").append(Person.emailOf(text, textAt[row], textLen[row])).append('\n')
+              .append("Course: ").append(StringDictionary.COURSES.decode(courseIds[row])).append('\n')
+              .append("Grade: ").append(StringDictionary.GRADES.decode(gradeIds[row])).append("\n\n");
+            if (sb.length() >= 1 << 16) {
+                System.out.print(sb);
+                sb.setLength(0);
+            }
+        }
+        System.out.print(sb);
+    }
+
+    public void regradeAll(GradingPolicy policy) {
+        int[] codes = new int[policy.gradeCount()];
+        for (int g = 0; g < codes.length; g++) codes[g] = StringDictionary.GRADES.encode(policy.grade(g));
+        double[] m = marks;
+        int[] ids = gradeIds;
+        IntStream.range(0, size).parallel().forEach(row -> ids[row] = codes[policy.gradeIndex(m[row])]);
+    }
+
+    public double averageMarks() {
+        double sum = 0;
+        for (int row = 0; row < size; row++) sum += marks[row];
+        return size == 0 ? 0.0 : sum / size;
+    }
+
+    public double averageMarks(String course) {
+        int c = StringDictionary.COURSES.codeOf(course), count = 0;
+        if (c < 0) return 0.0;
+        double sum = 0;
+        for (int row = 0; row < size; row++) {
+            if (courseIds[row] == c) {
+                sum += marks[row];
+                count++;
+            }
+        }
+        return count == 0 ? 0.0 : sum / count;
+    }
+
+    public int countInMarksRange(double min, double max) {
+        int count = 0;
+        for (int row = 0; row < size; row++) {
+            double m = marks[row];
+            if (m >= min && m <= max) count++;
+        }
+        return count;
+    }
+}
+
+class ConcurrentStudentManager implements RecordActions {
+    static final class Snapshot {
+        final int rollNo;
+        final byte[] packed;
+        final int course;
+        final double marks;
+        final int grade;
+
+        Snapshot(int rollNo, byte[] packed, int course, double marks, int grade) {
+            this.rollNo = rollNo;
+            this.packed = packed;
+            this.course = course;
+            this.marks = marks;
+            this.grade = grade;
+        }
+
+        Snapshot withResult(double newMarks, String newGrade) {
+            return new Snapshot(rollNo, packed, course, newMarks, StringDictionary.GRADES.encode(newGrade));
+        }
+
+        Student toStudent() {
+            return new Student(rollNo, packed, course, marks, grade);
+        }
+    }
+
+    private final ConcurrentHashMap<Integer, Snapshot> students = new ConcurrentHashMap<>();
+
+    public boolean insert(int rollNo, String name, String email, String course, double marks, String grade) {
+        return students.putIfAbsent(rollNo, new Snapshot(rollNo, Person.pack(name, email),
+                StringDictionary.COURSES.encode(course), marks, StringDictionary.GRADES.encode(grade))) == null;
+    }
+
+    public boolean update(int rollNo, double newMarks, String newGrade) {
+        return students.computeIfPresent(rollNo, (k, old) -> old.withResult(newMarks, newGrade)) != null;
+    }
+
+    public boolean remove(int rollNo) {
+        return students.remove(rollNo) != null;
+    }
+
+    public Snapshot get(int rollNo) {
+        return students.get(rollNo);
+    }
+
+    public int size() {
+        return students.size();
+    }
+
+    @Override
+    public void addStudent(Student student) {
+        Snapshot snapshot = new Snapshot(student.getRollNo(), student.packed(), student.getCourseCode(),
+                student.getMarks(), student.getGradeCode());
+        if (students.putIfAbsent(snapshot.rollNo, snapshot) == null) {
+            System.out.println("Student added successfully.\n");
+        } else {
+            System.out.println("Duplicate roll number! Cannot add student.\n");
+        }
+    }
+
+    @Override
+    public void deleteStudent(int rollNo) {
+        if (remove(rollNo)) {
+            System.out.println("Student with Roll No " + rollNo + " deleted successfully.\n");
+        } else {
+            System.out.println("No student found with Roll No " + rollNo + ".\n");
+        }
+    }
+
+    @Override
+    public void updateStudent(int rollNo, double newMarks, String newGrade) {
+        if (update(rollNo, newMarks, newGrade)) {
+            System.out.println("Student record updated successfully.\n");
+        } else {
+            System.out.println("Student not found.\n");
+        }
+    }
+
+    @Override
+    public Student searchStudent(int rollNo) {
+        Snapshot s = students.get(rollNo);
+        return s == null ? null : s.toStudent();
+    }
+
+    @Override
+    public void viewAllStudents() {
+        if (students.isEmpty()) {
+            System.out.println("No student records found.\n");
+            return;
+        }
+        StringBuilder sb = new StringBuilder(1 << 16);
+        for (Snapshot s : students.values()) {
+            s.toStudent().appendInfo(sb);
+            if (sb.length() >= 1 << 16) {
+                System.out.print(sb);
+                sb.setLength(0);
+            }
+        }
+        System.out.print(sb);
+    }
+}
+
+class ConcurrentStudentStress {
+    private static void check(boolean condition, String message) {
+        if (!condition) throw new AssertionError(message);
+    }
+
+    private static void runThreads(int threads, Runnable body) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+        for (int t = 0; t < threads; t++) {
+            Thread w = new Thread(() -> {
+                try {
+                    start.await();
+                    body.run();
+                } catch (InterruptedException ignored) {
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            });
+            workers.add(w);
+            w.start();
+        }
+        start.countDown();
+        for (Thread w : workers) w.join();
+        if (!failures.isEmpty()) throw new AssertionError(failures.get(0).getMessage(), failures.get(0));
+    }
+
+    static void noTornReads(int threads) throws InterruptedException {
+        ConcurrentStudentManager manager = new ConcurrentStudentManager();
+        for (int r = 0; r < 64; r++) manager.insert(r, "S" + r, "s@uni.edu", "CSE", 0, "0");
+        AtomicBoolean stop = new AtomicBoolean();
+        AtomicInteger violations = new AtomicInteger();
+        Thread writer = new Thread(() -> {
+            ThreadLocalRandom rnd = ThreadLocalRandom.current();
+            for (int i = 0; i < 500_000; i++) {
+                int m = rnd.nextInt(101);
+                manager.update(rnd.nextInt(64), m, String.valueOf(m));
+            }
+            stop.set(true);
+        });
+        writer.start();
+        runThreads(threads, () -> {
+            ThreadLocalRandom rnd = ThreadLocalRandom.current();
+            while (!stop.get()) {
+                Student s = manager.searchStudent(rnd.nextInt(64));
+                if (!String.valueOf((int) s.getMarks()).equals(s.getGrade())) violations.incrementAndGet();
+            }
+        });
+        writer.join();
+        check(violations.get() == 0, "torn marks/grade reads: " + violations.get());
+    }
+
+    static void singleWinnerInserts(int threads) throws InterruptedException {
+        ConcurrentStudentManager manager = new ConcurrentStudentManager();
+        int keys = 100_000;
+        AtomicInteger wins = new AtomicInteger();
+        runThreads(threads, () -> {
+            for (int r = 0; r < keys; r++) {
+                if (manager.insert(r, "S", "s@uni.edu", "CSE", 50, "C")) wins.incrementAndGet();
+            }
+        });
+        check(wins.get() == keys && manager.size() == keys, "inserts: wins=" + wins + " size=" + manager.size());
+    }
+
+    static void singleWinnerDeletes(int threads) throws InterruptedException {
+        ConcurrentStudentManager manager = new ConcurrentStudentManager();
+        int keys = 100_000;
+        for (int r = 0; r < keys; r++) manager.insert(r, "S", "s@uni.edu", "CSE", 50, "C");
+        AtomicInteger wins = new AtomicInteger();
+        runThreads(threads, () -> {
+            for (int r = 0; r < keys; r++) {
+                if (manager.remove(r)) wins.incrementAndGet();
+            }
+        });
+        check(wins.get() == keys && manager.size() == 0, "deletes: wins=" + wins + " size=" + manager.size());
+    }
+
+    static final class History {
+        final boolean[] write;
+        final int[] key;
+        final long[] value;
+        final long[] invoke;
+        final long[] response;
+        int size;
+
+        History(int capacity) {
+            write = new boolean[capacity];
+            key = new int[capacity];
+            value = new long[capacity];
+            invoke = new long[capacity];
+            response = new long[capacity];
+        }
+
+        void add(boolean w, int k, long v, long inv, long resp) {
+            write[size] = w;
+            key[size] = k;
+            value[size] = v;
+            invoke[size] = inv;
+            response[size] = resp;
+            size++;
+        }
+    }
+
+    private static Integer[] sortedBy(List<long[]> ops, int field) {
+        Integer[] order = new Integer[ops.size()];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        Arrays.sort(order, Comparator.comparingLong(i -> ops.get(i)[field]));
+        return order;
+    }
+
+    private static final int VALUE = 0, INVOKE = 1, RESPONSE = 2;
+
+    private static void checkRegister(List<long[]> writes, List<long[]> reads, long initial) {
+        Map<Long, long[]> byValue = new HashMap<>();
+        long[] initialWrite = { initial, Long.MIN_VALUE, Long.MIN_VALUE };
+        byValue.put(initial, initialWrite);
+        for (long[] w : writes) byValue.put(w[VALUE], w);
+        for (long[] r : reads) {
+            long[] w = byValue.get(r[VALUE]);
+            check(w != null, "read returned a value that was never written: " + r[VALUE]);
+            check(w[INVOKE] < r[RESPONSE], "read returned value " + r[VALUE] + " before it was written");
+        }
+
+        Integer[] writesByResponse = sortedBy(writes, RESPONSE);
+        Integer[] readsByInvoke = sortedBy(reads, INVOKE);
+        long newestCompleted = Long.MIN_VALUE;
+        int wi = 0;
+        for (int ri : readsByInvoke) {
+            long[] r = reads.get(ri);
+            while (wi < writesByResponse.length && writes.get(writesByResponse[wi])[RESPONSE] < r[INVOKE]) {
+                newestCompleted = Math.max(newestCompleted, writes.get(writesByResponse[wi++])[INVOKE]);
+            }
+            check(newestCompleted <= byValue.get(r[VALUE])[RESPONSE],
+                    "stale read: value " + r[VALUE] + " was overwritten before the read began");
+        }
+
+        Integer[] readsByResponse = sortedBy(reads, RESPONSE);
+        long newestSeen = Long.MIN_VALUE;
+        int pi = 0;
+        for (int ri : readsByInvoke) {
+            long[] r = reads.get(ri);
+            while (pi < readsByResponse.length && reads.get(readsByResponse[pi])[RESPONSE] < r[INVOKE]) {
+                newestSeen = Math.max(newestSeen, byValue.get(reads.get(readsByResponse[pi++])[VALUE])[INVOKE]);
+            }
+            check(newestSeen <= byValue.get(r[VALUE])[RESPONSE],
+                    "new/old inversion: a later read returned " + r[VALUE] + " after an earlier read saw a newer write");
+        }
+    }
+
+    static void linearizableRegisters(int threads) throws InterruptedException {
+        ConcurrentStudentManager manager = new ConcurrentStudentManager();
+        int keys = 4, opsPerThread = 50_000;
+        long initial = -1;
+        for (int k = 0; k < keys; k++) manager.insert(k, "S", "s@uni.edu", "CSE", initial, "C");
+        AtomicInteger ids = new AtomicInteger();
+        List<History> histories = Collections.synchronizedList(new ArrayList<>());
+        runThreads(threads, () -> {
+            int id = ids.getAndIncrement();
+            History h = new History(opsPerThread);
+            ThreadLocalRandom rnd = ThreadLocalRandom.current();
+            for (int i = 0; i < opsPerThread; i++) {
+                int k = rnd.nextInt(keys);
+                if (rnd.nextInt(4) == 0) {
+                    long v = (long) id * opsPerThread + i;
+                    long inv = System.nanoTime();
+                    manager.update(k, v, "C");
+                    h.add(true, k, v, inv, System.nanoTime());
+                } else {
+                    long inv = System.nanoTime();
+                    Student s = manager.searchStudent(k);
+                    long resp = System.nanoTime();
+                    h.add(false, k, (long) s.getMarks(), inv, resp);
+                }
+            }
+            histories.add(h);
+        });
+        for (int k = 0; k < keys; k++) {
+            List<long[]> writes = new ArrayList<>(), reads = new ArrayList<>();
+            for (History h : histories) {
+                for (int i = 0; i < h.size; i++) {
+                    if (h.key[i] != k) continue;
+                    long[] op = { h.value[i], h.invoke[i], h.response[i] };
+                    (h.write[i] ? writes : reads).add(op);
+                }
+            }
+            checkRegister(writes, reads, initial);
+        }
+    }
+
+    static void readYourWrites(int threads) throws InterruptedException {
+        ConcurrentStudentManager manager = new ConcurrentStudentManager();
+        AtomicInteger ids = new AtomicInteger();
+        for (int t = 0; t < threads; t++) manager.insert(t, "S", "s@uni.edu", "CSE", -1, "-1");
+        runThreads(threads, () -> {
+            int roll = ids.getAndIncrement();
+            for (int i = 0; i < 100_000; i++) {
+                double m = i % 101;
+                manager.update(roll, m, String.valueOf((int) m));
+                Student s = manager.searchStudent(roll);
+                check(s.getMarks() == m && String.valueOf((int) m).equals(s.getGrade()),
+                        "thread did not observe its own write: wrote " + m + ", read " + s.getMarks());
+            }
+        });
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Math.max(4, Runtime.getRuntime().availableProcessors());
+        noTornReads(threads);
+        System.out.println("noTornReads: OK");
+        singleWinnerInserts(threads);
+        System.out.println("singleWinnerInserts: OK");
+        singleWinnerDeletes(threads);
+        System.out.println("singleWinnerDeletes: OK");
+        readYourWrites(threads);
+        System.out.println("readYourWrites: OK");
+        linearizableRegisters(threads);
+        System.out.println("linearizableRegisters: OK");
     }
-    public abstract void displayInfo();
 }
 
-class Student extends Person {
-    private int rollNo;
-    private String course;
-    private double marks;
-    private String grade;
+class ConcurrentStudentBenchmark {
+    public static void main(String[] args) throws InterruptedException {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int keys = 1_000_000, opsPerThread = 2_000_000;
+        ConcurrentStudentManager manager = new ConcurrentStudentManager();
+        for (int r = 0; r < keys; r++) manager.insert(r, "S", "s@uni.edu", "CSE", r % 101, "C");
 
-    public Student(int rollNo, String name, String email, String course, double marks, String grade) {
-        super(name, email);
-        this.rollNo = rollNo;
-        this.course = course;
-        this.marks = marks;
-        this.grade = grade;
+        System.out.println("threads   ops/s   (80% read, 15% update, 5% insert/delete)");
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            List<Thread> workers = new ArrayList<>();
+            CountDownLatch start = new CountDownLatch(1);
+            for (int t = 0; t < threads; t++) {
+                Thread w = new Thread(() -> {
+                    ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < opsPerThread; i++) {
+                        int roll = rnd.nextInt(keys);
+                        int op = rnd.nextInt(100);
+                        if (op < 80) manager.searchStudent(roll);
+                        else if (op < 95) manager.update(roll, op, "B");
+                        else if (op < 98) manager.remove(roll);
+                        else manager.insert(roll, "S", "s@uni.edu", "CSE", op, "B");
+                    }
+                });
+                workers.add(w);
+                w.start();
+            }
+            long t0 = System.nanoTime();
+            start.countDown();
+            for (Thread w : workers) w.join();
+            long ns = System.nanoTime() - t0;
+            System.out.printf("%-8d %,d%n", threads, (long) threads * opsPerThread * 1_000_000_000L / ns);
+        }
     }
+}
 
-    @Override
-    public void displayInfo() {
-        System.out.println("Student Info:");
-        System.out.println("Roll No: " + rollNo);
-        System.out.println("Name: " + name);
-        System.out.println("Email: " + email);
-        System.out.println("Course: " + course);
-        System.out.println("Grade: " + grade);
-        System.out.println();
+class CsvStudentImporter {
+    private static final int CHUNK_SIZE = 8192;
+    private static final int BATCH_SIZE = 10_000;
+
+    static class Row {
+        final int line;
+        final String raw;
+        final Student student;
+        final String error;
+
+        Row(int line, String raw, Student student, String error) {
+            this.line = line;
+            this.raw = raw;
+            this.student = student;
+            this.error = error;
+        }
     }
 
-    public void displayInfo(String researchArea) {
-        System.out.println("Student Info:");
-        System.out.println("Roll No: " + rollNo);
-        System.out.println("Name: " + name);
-        System.out.println("Email: " + email);
-        System.out.println("Course: " + course);
-        System.out.println("Research Area: " + researchArea);
-        System.out.println();
+    static class ImportReport {
+        int imported;
+        int rejected;
+        long millis;
+
+        @Override
+        public String toString() {
+            return "Imported: " + imported + ", Rejected: " + rejected + ", Time: " + millis + " ms";
+        }
     }
 
-    public int getRollNo() {
-        return rollNo;
+    static Row parse(int line, String raw) {
+        String[] f = raw.split(",", -1);
+        if (f.length != 6) return new Row(line, raw, null, "Expected 6 fields: rollNo,name,email,course,marks,grade");
+        int rollNo;
+        double marks;
+        try {
+            rollNo = Integer.parseInt(f[0].trim());
+        } catch (NumberFormatException e) {
+            return new Row(line, raw, null, "Invalid roll number");
+        }
+        String name = f[1].trim(), email = f[2].trim(), course = f[3].trim(), grade = f[5].trim();
+        if (name.isEmpty()) return new Row(line, raw, null, "Name cannot be empty");
+        if (email.isEmpty()) return new Row(line, raw, null, "Email cannot be empty");
+        if (course.isEmpty()) return new Row(line, raw, null, "Course cannot be empty");
+        try {
+            marks = Double.parseDouble(f[4].trim());
+        } catch (NumberFormatException e) {
+            return new Row(line, raw, null, "Invalid marks");
+        }
+        if (!(marks >= 0 && marks <= 100)) return new Row(line, raw, null, "Marks must be between 0 and 100");
+        if (grade.isEmpty()) return new Row(line, raw, null, "Grade cannot be empty");
+        try {
+            return new Row(line, raw, new Student(rollNo, name, email, course, marks, grade), null);
+        } catch (IllegalArgumentException e) {
+            return new Row(line, raw, null, e.getMessage());
+        }
     }
-    public double getMarks() {
-        return marks;
+
+    static List<Row> parseChunk(List<String> lines, int firstLine) {
+        List<Row> rows = new ArrayList<>(lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            String raw = lines.get(i);
+            if (!raw.isBlank()) rows.add(parse(firstLine + i, raw));
+        }
+        return rows;
     }
-    public String getGrade() {
-        return grade;
+
+    public static ImportReport importFile(Path csv, Path errorReport, StudentManager manager) throws IOException {
+        long start = System.nanoTime();
+        List<String> lines = Files.readAllLines(csv, StandardCharsets.UTF_8);
+        int first = !lines.isEmpty() && lines.get(0).toLowerCase().startsWith("roll") ? 1 : 0;
+
+        List<Integer> chunkStarts = new ArrayList<>();
+        for (int i = first; i < lines.size(); i += CHUNK_SIZE) chunkStarts.add(i);
+        List<List<Row>> chunks = chunkStarts.parallelStream()
+                .map(i -> parseChunk(lines.subList(i, Math.min(i + CHUNK_SIZE, lines.size())), i + 1))
+                .collect(Collectors.toList());
+
+        ImportReport report = new ImportReport();
+        try (BufferedWriter out = Files.newBufferedWriter(errorReport, StandardCharsets.UTF_8)) {
+            out.write("line,error,record");
+            out.newLine();
+            List<Student> batch = new ArrayList<>(BATCH_SIZE);
+            Map<Student, Row> origin = new IdentityHashMap<>();
+            for (List<Row> chunk : chunks) {
+                for (Row row : chunk) {
+                    if (row.error != null) {
+                        writeError(out, row.line, row.error, row.raw);
+                        report.rejected++;
+                        continue;
+                    }
+                    batch.add(row.student);
+                    origin.put(row.student, row);
+                    if (batch.size() == BATCH_SIZE) commit(manager, batch, origin, out, report);
+                }
+            }
+            commit(manager, batch, origin, out, report);
+        }
+        report.millis = (System.nanoTime() - start) / 1_000_000;
+        return report;
     }
-    public void setMarks(double marks) {
-        this.marks = marks;
+
+    private static void commit(StudentManager manager, List<Student> batch, Map<Student, Row> origin,
+                               BufferedWriter out, ImportReport report) throws IOException {
+        List<Student> duplicates = manager.addStudents(batch);
+        for (Student d : duplicates) {
+            Row row = origin.get(d);
+            writeError(out, row.line, "Duplicate roll number " + d.getRollNo(), row.raw);
+        }
+        report.imported += batch.size() - duplicates.size();
+        report.rejected += duplicates.size();
+        batch.clear();
+        origin.clear();
     }
-    public void setGrade(String grade) {
-        this.grade = grade;
+
+    private static void writeError(BufferedWriter out, int line, String error, String raw) throws IOException {
+        out.write(line + ",\"" + error + "\"," + raw);
+        out.newLine();
     }
+}
 
-    @Override
-    protected void finalize() throws Throwable {
-        System.out.println("Finalize method called before object is garbage collected.");
+class CourseStatsCheck {
+    private static void check(boolean condition, String message) {
+        if (!condition) throw new AssertionError(message);
+    }
+
+    private static void compare(StudentManager manager, String course) {
+        double sum = 0, sq = 0;
+        long n = 0;
+        long[] bins = new long[CourseStats.BINS];
+        for (Student s : manager.findByCourse(course)) {
+            sum += s.getMarks();
+            n++;
+            bins[(int) Math.min(CourseStats.BINS - 1, s.getMarks() / 10)]++;
+        }
+        double mean = sum / n;
+        for (Student s : manager.findByCourse(course)) sq += (s.getMarks() - mean) * (s.getMarks() - mean);
+        CourseStats stats = manager.statsForCourse(course);
+        check(stats.count() == n, course + " count " + stats.count() + " != " + n);
+        check(Math.abs(stats.mean() - mean) < 1e-6, course + " mean " + stats.mean() + " != " + mean);
+        check(Math.abs(stats.variance() - sq / n) < 1e-6, course + " variance " + stats.variance() + " != " + sq / n);
+        check(Arrays.equals(stats.histogram(), bins), course + " histogram " + Arrays.toString(stats.histogram()));
+    }
+
+    public static void main(String[] args) {
+        StudentManager manager = new StudentManager();
+        Random rnd = new Random(21);
+        String[] courses = { "CSE", "ECE", "MECH" };
+        PrintStreamSilencer.run(() -> {
+            for (int i = 0; i < 20_000; i++) {
+                int roll = rnd.nextInt(5000);
+                switch (rnd.nextInt(3)) {
+                    case 0 -> manager.addStudent(new Student(roll, "S", "s@uni.edu", courses[roll % 3], rnd.nextInt(101), "X"));
+                    case 1 -> manager.updateStudent(roll, rnd.nextInt(1001) / 10.0, "Y");
+                    default -> manager.deleteStudent(roll);
+                }
+            }
+        });
+        for (String c : courses) compare(manager, c);
+        check(manager.overallStats().count() == manager.findByMarksRange(0, 100).size(), "overall count");
+        manager.regradeAll(GradingPolicy.standard());
+        long graded = manager.overallStats().gradeDistribution().values().stream().mapToLong(Long::longValue).sum();
+        check(graded == manager.overallStats().count(), "grade distribution after regrade");
+        for (String c : courses) {
+            for (Student s : manager.findByCourse(c)) PrintStreamSilencer.run(() -> manager.deleteStudent(s.getRollNo()));
+            check(manager.statsForCourse(c) == null, c + " stats not cleared after removing every student");
+        }
+        check(manager.overallStats().count() == 0 && manager.overallStats().histogram()[5] == 0, "overall stats not cleared");
+        System.out.println("CourseStatsCheck: OK");
     }
 }
 
-interface RecordActions {
-    void addStudent(Student student);
-    void deleteStudent(int rollNo);
-    void updateStudent(int rollNo, double newMarks, String newGrade);
-    Student searchStudent(int rollNo);
-    void viewAllStudents();
+class SearchIndexCheck {
+    private static void check(boolean condition, String message) {
+        if (!condition) throw new AssertionError(message);
+    }
+
+    private static String word(Random rnd, int min, int max) {
+        char[] c = new char[min + rnd.nextInt(max - min + 1)];
+        for (int i = 0; i < c.length; i++) c[i] = (char) ('a' + rnd.nextInt(6));
+        return new String(c);
+    }
+
+    private static List<String> termsOf(String[] row) {
+        String name = row[0], email = row[1];
+        List<String> terms = new ArrayList<>(Arrays.asList(name.split(" ")));
+        terms.add(name);
+        terms.add(email);
+        terms.add(email.substring(0, email.indexOf('@')));
+        return terms;
+    }
+
+    private static void compare(StudentSearchIndex index, Map<Integer, String[]> live, String query, int maxEdits) {
+        Set<Integer> prefix = new HashSet<>(), fuzzy = new HashSet<>();
+        for (Map.Entry<Integer, String[]> e : live.entrySet()) {
+            for (String term : termsOf(e.getValue())) {
+                if (term.startsWith(query)) prefix.add(e.getKey());
+                if (Math.abs(term.length() - query.length()) <= maxEdits
+                        && StudentSearchIndex.editDistance(query, term, maxEdits) <= maxEdits) {
+                    fuzzy.add(e.getKey());
+                }
+            }
+        }
+        check(index.prefix(query, Integer.MAX_VALUE).equals(prefix), "prefix \"" + query + "\"");
+        check(index.fuzzy(query, maxEdits, Integer.MAX_VALUE).equals(fuzzy), "fuzzy \"" + query + "\" within " + maxEdits);
+    }
+
+    public static void main(String[] args) {
+        StudentSearchIndex index = new StudentSearchIndex();
+        Map<Integer, String[]> live = new HashMap<>();
+        Random rnd = new Random(7);
+        for (int step = 0; step < 60_000; step++) {
+            int roll = rnd.nextInt(3000);
+            String[] row = live.get(roll);
+            if (row != null && rnd.nextInt(3) > 0) {
+                live.remove(roll);
+                index.remove(roll, row[0], row[1]);
+            } else if (row == null) {
+                row = new String[] { word(rnd, 2, 6) + " " + word(rnd, 2, 7), word(rnd, 1, 5) + "@x.io" };
+                live.put(roll, row);
+                index.add(roll, row[0], row[1]);
+            }
+            if (step % 500 == 0) {
+                for (int q = 0; q < 20; q++) compare(index, live, word(rnd, 1, 5), 1 + rnd.nextInt(2));
+            }
+        }
+        for (int roll = 10_000; roll < 14_000; roll++) index.add(roll, "zz" + Integer.toString(roll, 36), "zz" + roll + "@x.io");
+        for (int roll = 10_000; roll < 14_000; roll++) index.remove(roll, "zz" + Integer.toString(roll, 36), "zz" + roll + "@x.io");
+        for (int q = 0; q < 200; q++) compare(index, live, word(rnd, 1, 5), 1 + rnd.nextInt(2));
+        check(index.prefix("zz", Integer.MAX_VALUE).isEmpty(), "removed terms still match after rebuild");
+
+        StudentSearchIndex small = new StudentSearchIndex();
+        small.add(1, "Jan Novak", "jn@uni.edu");
+        check(small.fuzzy("jon", 1, 10).contains(1), "short query \"jon\" missed \"jan\"");
+        check(small.fuzzy("JA", 1, 10).contains(1), "two-letter query missed \"jan\"");
+        check(small.prefix("NOV", 10).contains(1), "prefix is not case-insensitive");
+        System.out.println("SearchIndexCheck: OK");
+    }
 }
 
-class StudentManager implements RecordActions {
-    private Map<Integer, Student> studentMap = new HashMap<>();
+class PersistenceCheck {
+    private static void check(boolean condition, String message) {
+        if (!condition) throw new AssertionError(message);
+    }
 
-    @Override
-    public void addStudent(Student student) {
-        if (studentMap.containsKey(student.getRollNo())) {
-            System.out.println("Duplicate roll number! Cannot add student.\n");
-        } else {
-            studentMap.put(student.getRollNo(), student);
-            System.out.println("Student added successfully.\n");
+    private static Map<Integer, String> contents(StudentManager manager) {
+        Map<Integer, String> rows = new TreeMap<>();
+        for (Student s : manager.students()) rows.put(s.getRollNo(), s.getName() + "," + s.getMarks() + "," + s.getGrade());
+        return rows;
+    }
+
+    private static void deleteAll(Path dir) throws IOException {
+        try (var files = Files.list(dir)) {
+            for (Path p : files.collect(Collectors.toList())) Files.delete(p);
         }
+        Files.delete(dir);
     }
 
-    @Override
-    public void deleteStudent(int rollNo) {
-        if (studentMap.remove(rollNo) != null) {
-            System.out.println("Student with Roll No " + rollNo + " deleted successfully.\n");
-        } else {
-            System.out.println("No student found with Roll No " + rollNo + ".\n");
+    private static void reopenCycles(int compactEvery) throws IOException {
+        Path dir = Files.createTempDirectory("students");
+        Random rnd = new Random(compactEvery);
+        Map<Integer, String> model = new TreeMap<>();
+        for (int cycle = 0; cycle < 6; cycle++) {
+            PersistentStudentManager manager = new PersistentStudentManager(dir, compactEvery);
+            check(contents(manager).equals(model), "compactEvery=" + compactEvery + " cycle " + cycle + ": " + contents(manager) + " != " + model);
+            for (int i = 0; i < 50; i++) {
+                int roll = rnd.nextInt(20);
+                double marks = rnd.nextInt(101);
+                switch (rnd.nextInt(3)) {
+                    case 0 -> {
+                        if (manager.insert(new Student(roll, "S" + roll, "s@uni.edu", "CSE", marks, "B"))) model.put(roll, "S" + roll + "," + marks + ",B");
+                    }
+                    case 1 -> {
+                        if (manager.update(roll, marks, "A")) model.put(roll, "S" + roll + "," + marks + ",A");
+                    }
+                    default -> {
+                        if (manager.remove(roll)) model.remove(roll);
+                    }
+                }
+            }
+            if (cycle == 3) {
+                PrintStreamSilencer.run(() -> manager.regradeAll(GradingPolicy.standard()));
+                model = contents(manager);
+            }
+            manager.close();
         }
+        deleteAll(dir);
     }
 
-    @Override
-    public void updateStudent(int rollNo, double newMarks, String newGrade) {
-        Student student = studentMap.get(rollNo);
-        if (student != null) {
-            student.setMarks(newMarks);
-            student.setGrade(newGrade);
-            System.out.println("Student record updated successfully.\n");
-        } else {
-            System.out.println("Student not found.\n");
+    private static void oversizedRecordRejected() throws IOException {
+        Path dir = Files.createTempDirectory("students");
+        PersistentStudentManager manager = new PersistentStudentManager(dir);
+        manager.insert(new Student(1, "A", "a@uni.edu", "CSE", 50, "C"));
+        boolean rejected = false;
+        try {
+            manager.insert(new Student(2, "B", "b".repeat(2 << 20), "CSE", 60, "C"));
+        } catch (IllegalArgumentException e) {
+            rejected = true;
         }
+        check(rejected && manager.searchStudent(2) == null, "oversized record was accepted");
+        manager.insert(new Student(3, "C", "c@uni.edu", "CSE", 70, "B"));
+        manager.close();
+        manager = new PersistentStudentManager(dir);
+        check(manager.size() == 2 && manager.searchStudent(3) != null, "records after a rejected one were lost");
+        manager.close();
+        deleteAll(dir);
     }
 
-    @Override
-    public Student searchStudent(int rollNo) {
-        return studentMap.get(rollNo);
+    private static void tornTailIgnored() throws IOException {
+        Path dir = Files.createTempDirectory("students");
+        PersistentStudentManager manager = new PersistentStudentManager(dir);
+        for (int roll = 1; roll <= 3; roll++) manager.insert(new Student(roll, "S", "s@uni.edu", "CSE", 50, "C"));
+        manager.close();
+        Path log;
+        try (var files = Files.list(dir)) {
+            log = files.filter(p -> p.toString().endsWith(".log")).findFirst().orElseThrow();
+        }
+        try (FileChannel ch = FileChannel.open(log, StandardOpenOption.WRITE)) {
+            ch.truncate(ch.size() - 3);
+        }
+        manager = new PersistentStudentManager(dir);
+        check(manager.size() == 2 && manager.searchStudent(3) == null, "torn tail record was not dropped");
+        manager.close();
+        deleteAll(dir);
     }
 
-    @Override
-    public void viewAllStudents() {
-        if (studentMap.isEmpty()) {
-            System.out.println("No student records found.\n");
-        } else {
-            for (Student s : studentMap.values()) {
-                s.displayInfo();
+    public static void main(String[] args) throws IOException {
+        for (int compactEvery : new int[] { 1, 2, 3, 5, 100_000 }) reopenCycles(compactEvery);
+        oversizedRecordRejected();
+        tornTailIgnored();
+        System.out.println("PersistenceCheck: OK");
+    }
+}
+
+class PrintStreamSilencer {
+    static void run(Runnable body) {
+        java.io.PrintStream out = System.out;
+        System.setOut(new java.io.PrintStream(java.io.OutputStream.nullOutputStream()));
+        try {
+            body.run();
+        } finally {
+            System.setOut(out);
+        }
+    }
+}
+
+class RegradeBenchmark {
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+        ColumnarStudentStore store = new ColumnarStudentStore();
+        Random rnd = new Random(11);
+        double[] marks = new double[n];
+        for (int i = 0; i < n; i++) {
+            marks[i] = rnd.nextInt(1001) / 10.0;
+            store.add(i, "S", "s@uni.edu", "CSE", marks[i], "F");
+        }
+        GradingPolicy standard = GradingPolicy.standard();
+        GradingPolicy curved = standard.curved(5);
+        GradingPolicy relative = GradingPolicy.fromPercentiles(marks, new double[] { 10, 35, 65, 90 },
+                new String[] { "F", "D", "C", "B", "A" });
+        for (int round = 0; round < 3; round++) {
+            for (GradingPolicy p : new GradingPolicy[] { standard, curved, relative }) {
+                long start = System.nanoTime();
+                store.regradeAll(p);
+                System.out.printf("Re-graded %d students in %.1f ms%n", n, (System.nanoTime() - start) / 1e6);
             }
         }
     }
+}
+
+class ChangeStreamBenchmark {
+    public static void main(String[] args) throws InterruptedException {
+        int events = args.length > 0 ? Integer.parseInt(args[0]) : 20_000_000;
+        StudentChangeStream stream = new StudentChangeStream(1 << 14);
+        StudentChangeStream.Consumer consumer = stream.subscribe();
+        long[] seen = new long[2];
+        Thread reader = new Thread(() -> {
+            while (seen[0] < events) {
+                int n = consumer.poll((change, seq, end) -> {
+                    seen[0]++;
+                    seen[1] += change.rollNo();
+                }, 256);
+                if (n == 0) Thread.onSpinWait();
+            }
+        });
+        reader.start();
+        long start = System.nanoTime();
+        for (int i = 0; i < events; i++) stream.publish(StudentChange.UPDATED, i, i % 101, "B");
+        long publishNs = System.nanoTime() - start;
+        reader.join();
+        long totalNs = System.nanoTime() - start;
+        System.out.printf("Published %d changes: %.1f ns/publish, %.1f ns/event end-to-end (checksum %d)%n",
+                events, publishNs / (double) events, totalNs / (double) events, seen[1]);
+
+        StudentManager manager = new StudentManager();
+        StudentChangeStream.Consumer audit = manager.changeStream().subscribe();
+        PrintStreamSilencer.run(() -> {
+            for (int i = 0; i < 1000; i++) manager.insert(new Student(i, "S", "s@uni.edu", "CSE", 50, "C"));
+            for (int i = 0; i < 1000; i += 2) manager.updateStudent(i, 80, "B");
+            for (int i = 0; i < 1000; i += 4) manager.deleteStudent(i);
+        });
+        int[] byType = new int[4];
+        audit.poll((change, seq, end) -> byType[change.type()]++, Integer.MAX_VALUE);
+        System.out.printf("StudentManager changes: %d added, %d updated, %d deleted%n", byType[1], byType[2], byType[3]);
+    }
+}
 
-    public void viewAllStudents(boolean showCount) {
-        viewAllStudents();
-        if (showCount) {
-            System.out.println("Total Students: " + studentMap.size() + "\n");
+class CacheBenchmark {
+    public static void main(String[] args) throws IOException {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        long budget = args.length > 1 ? Long.parseLong(args[1]) : 16L << 20;
+        Path file = Files.createTempFile("students", ".dat");
+        try (DiskStudentStore disk = new DiskStudentStore(file)) {
+            for (int i = 0; i < n; i++) disk.write(new Student(i, "Student " + i, "s" + i + "@uni.edu", "CSE", i % 101, "B"));
+            CachedStudentStore cache = new CachedStudentStore(disk, budget);
+            Random rnd = new Random(3);
+            int ops = 2_000_000;
+            long start = System.nanoTime();
+            for (int i = 0; i < ops; i++) {
+                int roll = (int) (n * Math.pow(rnd.nextDouble(), 4));
+                if (i % 10 == 0) {
+                    cache.get(rnd.nextInt(n));
+                } else {
+                    cache.get(roll);
+                }
+            }
+            long ns = System.nanoTime() - start;
+            System.out.printf("%d students on disk, %d MB budget: %.0f ns/op%n", n, budget >> 20, ns / (double) ops);
+            System.out.println(cache.stats());
+        } finally {
+            Files.deleteIfExists(file);
         }
     }
 }
 
-public class StudentManagementSystem {
+class ColumnarStoreBenchmark {
+    private static long usedHeap() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) System.gc();
+        return rt.totalMemory() - rt.freeMemory();
+    }
+
     public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        String[] courses = { "CSE", "ECE", "MECH", "CIVIL", "IT" };
+        String[] grades = { "A", "B", "C", "D", "F" };
+
+        long before = usedHeap();
+        ColumnarStudentStore store = new ColumnarStudentStore();
+        for (int i = 0; i < n; i++) {
+            store.add(i, "Student" + i, "s" + i + "@uni.edu", new String(courses[i % 5]), i % 101, new String(grades[i % 5]));
+        }
+        long columnarBytes = usedHeap() - before;
+        long textBytes = store.textBytes();
+
+        long start = System.nanoTime();
+        double avg = store.averageMarks("CSE");
+        long scanNs = System.nanoTime() - start;
+
+        System.out.printf("Columnar store: %d students, %.1f bytes/student (%.1f fixed + %.1f name/email arena), CSE average %.2f in %.2f ms%n",
+                store.size(), columnarBytes / (double) n, (columnarBytes - textBytes) / (double) n, textBytes / (double) n, avg, scanNs / 1e6);
+        store = null;
+
+        before = usedHeap();
+        Map<Integer, Student> objects = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            objects.put(i, new Student(i, "Student" + i, "s" + i + "@uni.edu", new String(courses[i % 5]), i % 101, new String(grades[i % 5])));
+        }
+        long objectBytes = usedHeap() - before;
+
+        start = System.nanoTime();
+        double sum = 0;
+        int count = 0, cse = StringDictionary.COURSES.codeOf("CSE");
+        for (Student s : objects.values()) {
+            if (s.getCourseCode() == cse) {
+                sum += s.getMarks();
+                count++;
+            }
+        }
+        scanNs = System.nanoTime() - start;
+
+        System.out.printf("Object map:     %d students, %.1f bytes/student, CSE average %.2f in %.2f ms%n",
+                objects.size(), objectBytes / (double) n, sum / count, scanNs / 1e6);
+    }
+}
+
+class BatchReader {
+    private final InputStream in;
+    private byte[] buf = new byte[1 << 16];
+    private int limit;
+    private int next;
+    private int lineEnd;
+    private int pos;
+    private int lineNo;
+    private boolean eof;
+
+    public BatchReader(InputStream in) {
+        this.in = in;
+    }
+
+    private int indexOfNewline(int from) {
+        for (int i = from; i < limit; i++) {
+            if (buf[i] == '\n') return i;
+        }
+        return -1;
+    }
+
+    private void fill() throws IOException {
+        System.arraycopy(buf, next, buf, 0, limit - next);
+        limit -= next;
+        next = 0;
+        if (limit == buf.length) buf = Arrays.copyOf(buf, buf.length << 1);
+        int n = in.read(buf, limit, buf.length - limit);
+        if (n < 0) eof = true;
+        else limit += n;
+    }
+
+    public boolean nextLine() throws IOException {
+        while (true) {
+            int nl = indexOfNewline(next);
+            if (nl < 0) {
+                if (!eof) {
+                    fill();
+                    continue;
+                }
+                if (next >= limit) return false;
+                nl = limit;
+            }
+            pos = next;
+            lineEnd = nl > pos && buf[nl - 1] == '\r' ? nl - 1 : nl;
+            next = nl + 1;
+            lineNo++;
+            skipSpaces();
+            if (pos < lineEnd && buf[pos] != '#') return true;
+        }
+    }
+
+    public int line() {
+        return lineNo;
+    }
+
+    public boolean hasField() {
+        return pos < lineEnd;
+    }
+
+    private void skipSpaces() {
+        while (pos < lineEnd && (buf[pos] == ' ' || buf[pos] == '\t')) pos++;
+    }
+
+    private int fieldEnd() {
+        int i = pos;
+        while (i < lineEnd && buf[i] != ',') i++;
+        return i;
+    }
+
+    private int trimmedEnd(int end) {
+        while (end > pos && (buf[end - 1] == ' ' || buf[end - 1] == '\t')) end--;
+        return end;
+    }
+
+    private void advance(int end) {
+        pos = end < lineEnd ? end + 1 : lineEnd;
+        skipSpaces();
+    }
+
+    public boolean keyword(String word) {
+        int end = fieldEnd(), e = trimmedEnd(end);
+        if (e - pos != word.length()) return false;
+        for (int i = 0; i < word.length(); i++) {
+            if (Character.toLowerCase(buf[pos + i]) != word.charAt(i)) return false;
+        }
+        advance(end);
+        return true;
+    }
+
+    public String text() {
+        if (!hasField()) throw new IllegalArgumentException("missing field");
+        int end = fieldEnd();
+        String s = new String(buf, pos, trimmedEnd(end) - pos, StandardCharsets.UTF_8);
+        advance(end);
+        return s;
+    }
+
+    public int intField() {
+        int end = fieldEnd(), e = trimmedEnd(end), i = pos;
+        boolean negative = i < e && buf[i] == '-';
+        if (negative || (i < e && buf[i] == '+')) i++;
+        if (i == e) throw new IllegalArgumentException("expected an integer");
+        long value = 0;
+        for (; i < e; i++) {
+            int d = buf[i] - '0';
+            if (d < 0 || d > 9) throw new IllegalArgumentException("expected an integer");
+            value = value * 10 + d;
+            if (value > (long) Integer.MAX_VALUE + 1) throw new IllegalArgumentException("integer out of range");
+        }
+        if (negative) value = -value;
+        if (value > Integer.MAX_VALUE) throw new IllegalArgumentException("integer out of range");
+        advance(end);
+        return (int) value;
+    }
+
+    private static final double[] POW10 = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18 };
+
+    public double doubleField() {
+        int end = fieldEnd(), e = trimmedEnd(end), i = pos;
+        boolean negative = i < e && buf[i] == '-';
+        if (negative || (i < e && buf[i] == '+')) i++;
+        long mantissa = 0;
+        int digits = 0, scale = 0;
+        boolean dot = false, simple = true;
+        for (; i < e; i++) {
+            byte b = buf[i];
+            if (b == '.' && !dot) {
+                dot = true;
+            } else if (b >= '0' && b <= '9') {
+                if (++digits > 15) simple = false;
+                mantissa = mantissa * 10 + (b - '0');
+                if (dot) scale++;
+            } else {
+                simple = false;
+                break;
+            }
+        }
+        double value;
+        if (simple && digits > 0) {
+            value = mantissa / POW10[scale];
+            if (negative) value = -value;
+        } else {
+            try {
+                value = Double.parseDouble(new String(buf, pos, e - pos, StandardCharsets.US_ASCII));
+            } catch (NumberFormatException ex) {
+                throw new IllegalArgumentException("expected a number");
+            }
+        }
+        if (!Double.isFinite(value)) throw new IllegalArgumentException("expected a number");
+        advance(end);
+        return value;
+    }
+}
+
+public class StudentManagementSystem {
+    static long runBatch(InputStream in, StudentManager manager) throws IOException {
+        BatchReader r = new BatchReader(in);
+        PrintStream console = System.out;
+        PrintStream out = new PrintStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out), 1 << 16), false);
+        System.setOut(out);
+        long commands = 0;
+        try {
+            while (r.nextLine()) {
+                commands++;
+                try {
+                    if (r.keyword("add")) {
+                        manager.addStudent(new Student(r.intField(), r.text(), r.text(), r.text(), r.doubleField(), r.text()));
+                    } else if (r.keyword("update")) {
+                        manager.updateStudent(r.intField(), r.doubleField(), r.text());
+                    } else if (r.keyword("delete")) {
+                        manager.deleteStudent(r.intField());
+                    } else if (r.keyword("search")) {
+                        Student found = manager.searchStudent(r.intField());
+                        if (found != null) found.displayInfo();
+                        else out.println("Student not found.\n");
+                    } else if (r.keyword("list")) {
+                        manager.viewAllStudents();
+                    } else if (r.keyword("count")) {
+                        out.println("Total Students: " + manager.size() + "\n");
+                    } else {
+                        out.println("Line " + r.line() + ": unknown command");
+                    }
+                } catch (IllegalArgumentException e) {
+                    out.println("Line " + r.line() + ": " + e.getMessage());
+                }
+            }
+        } finally {
+            out.flush();
+            System.setOut(console);
+        }
+        return commands;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path data = null, batch = null;
+        boolean batchMode = false;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--data") && i + 1 < args.length) {
+                data = Path.of(args[++i]);
+            } else if (args[i].equals("--batch")) {
+                batchMode = true;
+                if (i + 1 < args.length && !args[i + 1].startsWith("--")) batch = Path.of(args[++i]);
+            }
+        }
+        StudentManager manager = data != null ? new PersistentStudentManager(data) : new StudentManager();
+        if (batchMode) {
+            long start = System.nanoTime();
+            try (InputStream in = batch != null ? Files.newInputStream(batch) : System.in) {
+                long commands = runBatch(in, manager);
+                System.err.printf("Replayed %d commands in %d ms%n", commands, (System.nanoTime() - start) / 1_000_000);
+            }
+            if (manager instanceof PersistentStudentManager) {
+                ((PersistentStudentManager) manager).close();
+            }
+            return;
+        }
         Scanner sc = new Scanner(System.in);
-        StudentManager manager = new StudentManager();
 
         while (true) {
             System.out.println("1. Add Student");
@@ -146,6 +3327,13 @@ public class StudentManagementSystem {
             System.out.println("5. Delete Student");
             System.out.println("6. View Count");
             System.out.println("7. Exit");
+            System.out.println("8. Filter Students");
+            System.out.println("9. Leaderboard");
+            System.out.println("10. Import Students from CSV");
+            System.out.println("11. Browse Students (paged)");
+            System.out.println("12. Re-grade All Students");
+            System.out.println("13. Course Statistics");
+            System.out.println("14. Search by Name/Email");
             System.out.print("Enter choice: ");
             int ch = sc.nextInt();
             sc.nextLine();
@@ -209,12 +3397,152 @@ public class StudentManagementSystem {
                 case 7:
                     System.out.println("Exiting...");
                     sc.close();
-                    System.gc();
+                    if (manager instanceof PersistentStudentManager) {
+                        ((PersistentStudentManager) manager).close();
+                    }
                     return;
 
+                case 8:
+                    System.out.print("Filter by (1=Course, 2=Grade, 3=Marks Range): ");
+                    int f = sc.nextInt(); sc.nextLine();
+                    List<Student> matches;
+                    if (f == 1) {
+                        System.out.print("Enter Course: ");
+                        matches = manager.findByCourse(sc.nextLine());
+                    } else if (f == 2) {
+                        System.out.print("Enter Grade: ");
+                        matches = manager.findByGrade(sc.nextLine());
+                    } else if (f == 3) {
+                        System.out.print("Enter Min Marks: ");
+                        double min = sc.nextDouble();
+                        System.out.print("Enter Max Marks: ");
+                        double max = sc.nextDouble(); sc.nextLine();
+                        matches = manager.findByMarksRange(min, max);
+                    } else {
+                        System.out.println("Invalid filter.\n");
+                        break;
+                    }
+                    if (matches.isEmpty()) {
+                        System.out.println("No matching students.\n");
+                    } else {
+                        for (Student s : matches) s.displayInfo();
+                        System.out.println("Matches: " + matches.size() + "\n");
+                    }
+                    break;
+
+                case 9:
+                    System.out.print("Show Top K: ");
+                    int k = sc.nextInt(); sc.nextLine();
+                    int pos = 1;
+                    for (Student s : manager.topStudents(k)) {
+                        System.out.println(pos++ + ". Roll No " + s.getRollNo() + " - " + s.getName() + " (" + s.getMarks() + ")");
+                    }
+                    System.out.print("Enter Roll No for Rank (optional): ");
+                    String rr = sc.nextLine().trim();
+                    if (!rr.isEmpty()) {
+                        int rank = manager.rankOf(Integer.parseInt(rr));
+                        if (rank == 0) {
+                            System.out.println("Student not found.");
+                        } else {
+                            System.out.printf("Rank: %d, Percentile: %.1f%n", rank, manager.percentileOf(Integer.parseInt(rr)));
+                        }
+                    }
+                    System.out.println();
+                    break;
+
+                case 10:
+                    System.out.print("Enter CSV path (rollNo,name,email,course,marks,grade): ");
+                    Path csv = Path.of(sc.nextLine().trim());
+                    Path errors = Path.of(csv + ".errors.csv");
+                    try {
+                        System.out.println(CsvStudentImporter.importFile(csv, errors, manager));
+                        System.out.println("Rejected rows written to " + errors + "\n");
+                    } catch (IOException e) {
+                        System.out.println("Could not import " + csv + " (" + e.getMessage() + ")\n");
+                    }
+                    break;
+
+                case 11:
+                    System.out.print("Sort by (ROLL_NO, NAME, MARKS): ");
+                    String sortBy = sc.nextLine().trim().toUpperCase();
+                    System.out.print("Page size: ");
+                    int pageSize = sc.nextInt(); sc.nextLine();
+                    System.out.print("Resume from cursor (optional): ");
+                    String token = sc.nextLine().trim();
+                    try {
+                        SortKey sortKey = SortKey.valueOf(sortBy);
+                        PageCursor cursor = token.isEmpty() ? null : PageCursor.decode(token);
+                        while (true) {
+                            StudentPage page = manager.page(sortKey, cursor, Math.max(1, pageSize));
+                            page.writeTo(System.out);
+                            if (page.next == null) {
+                                System.out.println("End of roster.\n");
+                                break;
+                            }
+                            cursor = page.next;
+                            System.out.print("Cursor: " + cursor.encode() + "  (Enter = next page, q = stop): ");
+                            if (sc.nextLine().trim().equalsIgnoreCase("q")) break;
+                        }
+                    } catch (IllegalArgumentException e) {
+                        System.out.println("Invalid sort key or cursor.\n");
+                    } catch (IOException e) {
+                        System.out.println("Could not write page.\n");
+                    }
+                    break;
+
+                case 12:
+                    System.out.print("Enter boundaries for D, C, B, A (blank = 40 60 75 90): ");
+                    String line = sc.nextLine().trim();
+                    System.out.print("Enter curve points (0 = none): ");
+                    double curve = sc.nextDouble(); sc.nextLine();
+                    try {
+                        GradingPolicy policy = GradingPolicy.standard();
+                        if (!line.isEmpty()) {
+                            double[] bounds = Arrays.stream(line.split("\\s+")).mapToDouble(Double::parseDouble).toArray();
+                            policy = new GradingPolicy(bounds, new String[] { "F", "D", "C", "B", "A" });
+                        }
+                        int changed = manager.regradeAll(policy.curved(curve));
+                        System.out.println("Grades changed: " + changed + "\n");
+                    } catch (IllegalArgumentException e) {
+                        System.out.println("Invalid boundaries: " + e.getMessage() + "\n");
+                    }
+                    break;
+
+                case 13:
+                    System.out.print("Enter Course (blank = all students): ");
+                    String statsCourse = sc.nextLine().trim();
+                    CourseStats stats = statsCourse.isEmpty() ? manager.overallStats() : manager.statsForCourse(statsCourse);
+                    if (stats == null || stats.count() == 0) {
+                        System.out.println("No students found.\n");
+                    } else {
+                        System.out.println(stats.summary());
+                    }
+                    break;
+
+                case 14:
+                    System.out.print("Enter name or email (prefix): ");
+                    String text = sc.nextLine();
+                    List<Student> hits = manager.searchByPrefix(text, 20);
+                    if (hits.isEmpty()) {
+                        hits = manager.fuzzySearch(text, text.trim().length() > 5 ? 2 : 1, 20);
+                        if (!hits.isEmpty()) System.out.println("No exact prefix match. Did you mean:");
+                    }
+                    if (hits.isEmpty()) {
+                        System.out.println("No matching students.\n");
+                    } else {
+                        for (Student s : hits) {
+                            System.out.println("Roll No " + s.getRollNo() + " - " + s.getName() + " <" + s.getEmail() + ">");
+                        }
+                        System.out.println();
+                    }
+                    break;
+
                 default:
                     System.out.println("Invalid choice.\n");
             }
+            if (manager instanceof PersistentStudentManager) {
+                ((PersistentStudentManager) manager).sync();
+            }
         }
     }
 }
@@ -1,4 +1,20 @@
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.stream.Collectors;
 
 
 class StudentNotFoundException extends Exception {
@@ -31,6 +47,77 @@ class Loader implements Runnable {
 }
 
 
+class RollNoIndex {
+    private static final int FREE = -1;
+    private int[] keys;
+    private int[] positions;
+    private int size;
+    private int mask;
+
+    public RollNoIndex() {
+        this(16);
+    }
+
+    public RollNoIndex(int expected) {
+        int cap = Integer.highestOneBit(Math.max(16, expected * 2 - 1)) << 1;
+        allocate(cap);
+    }
+
+    private void allocate(int cap) {
+        keys = new int[cap];
+        positions = new int[cap];
+        Arrays.fill(positions, FREE);
+        mask = cap - 1;
+    }
+
+    private int slot(int key) {
+        int h = key * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    public int get(int rollNo) {
+        for (int i = slot(rollNo); ; i = (i + 1) & mask) {
+            int pos = positions[i];
+            if (pos == FREE) return FREE;
+            if (keys[i] == rollNo) return pos;
+        }
+    }
+
+    public boolean contains(int rollNo) {
+        return get(rollNo) != FREE;
+    }
+
+    public boolean putIfAbsent(int rollNo, int position) {
+        if ((size + 1) * 3 > positions.length * 2) grow();
+        for (int i = slot(rollNo); ; i = (i + 1) & mask) {
+            if (positions[i] == FREE) {
+                keys[i] = rollNo;
+                positions[i] = position;
+                size++;
+                return true;
+            }
+            if (keys[i] == rollNo) return false;
+        }
+    }
+
+    private void grow() {
+        int[] oldKeys = keys, oldPositions = positions;
+        allocate(oldPositions.length << 1);
+        for (int i = 0; i < oldPositions.length; i++) {
+            if (oldPositions[i] == FREE) continue;
+            int j = slot(oldKeys[i]);
+            while (positions[j] != FREE) j = (j + 1) & mask;
+            keys[j] = oldKeys[i];
+            positions[j] = oldPositions[i];
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+}
+
+
 interface RecordActions {
     void addStudent();
     void displayAllStudents();
@@ -72,54 +159,178 @@ class Student {
         return rollNo;
     }
 
+    public int rollNo() {
+        return rollNo;
+    }
+
     public void display() {
-        System.out.println("Roll No: " + rollNo);
-        System.out.println("Name: " + name);
-        System.out.println("Email: " + email);
-        System.out.println("Course: " + course);
-        System.out.println("Marks: " + marks);
-        System.out.println("Grade: " + grade);
-        System.out.println("-----------------------------------");
+        StringBuilder sb = new StringBuilder(160);
+        appendTo(sb);
+        System.out.print(sb);
+    }
+
+    public void appendTo(StringBuilder sb) {
+        sb.append("Roll No: ").append(rollNo).append('\n')
+          .append("Name: ").append(name).append('\n')
+          .append("Email: ").append(email).append('\n')
+          .append("Course: ").append(course).append('\n')
+          .append("Marks: ").append(marks).append('\n')
+          .append("Grade: ").append(grade).append('\n')
+          .append("-----------------------------------\n");
+    }
+}
+
+
+class StudentResult {
+    public static final int OK = 0;
+    public static final int INVALID = 1;
+    public static final int DUPLICATE = 2;
+    public static final int NOT_FOUND = 3;
+
+    static final StudentResult MISSING = new StudentResult(NOT_FOUND, null, List.of());
+
+    public final int status;
+    public final Student student;
+    public final List<String> errors;
+
+    StudentResult(int status, Student student, List<String> errors) {
+        this.status = status;
+        this.student = student;
+        this.errors = errors;
+    }
+
+    static StudentResult ok(Student s) {
+        return new StudentResult(OK, s, List.of());
+    }
+
+    static StudentResult duplicate(int rollNo) {
+        return new StudentResult(DUPLICATE, null, List.of("Duplicate roll number " + rollNo + "!"));
+    }
+
+    public boolean isOk() {
+        return status == OK;
+    }
+
+    public String message() {
+        return errors.isEmpty() ? "" : errors.get(0);
     }
 }
 
 
 class StudentManager implements RecordActions {
     private ArrayList<Student> students = new ArrayList<>();
+    private RollNoIndex rollIndex = new RollNoIndex();
     private Scanner sc = new Scanner(System.in);
 
+    private SavePipeline savePipeline;
+
+    public synchronized boolean addStudent(Student s) {
+        if (!rollIndex.putIfAbsent(s.rollNo(), students.size())) return false;
+        students.add(s);
+        return true;
+    }
+
+    public synchronized List<Student> addStudents(List<Student> batch) {
+        List<Student> duplicates = new ArrayList<>();
+        students.ensureCapacity(students.size() + batch.size());
+        for (Student s : batch) {
+            if (!addStudent(s)) duplicates.add(s);
+        }
+        return duplicates;
+    }
+
+    public synchronized Student findStudent(int rollNo) {
+        int pos = rollIndex.get(rollNo);
+        return pos < 0 ? null : students.get(pos);
+    }
+
+    static String checkName(String name) {
+        return name == null || name.isEmpty() ? "Name cannot be empty!" : null;
+    }
+
+    static String checkEmail(String email) {
+        return email == null || email.isEmpty() ? "Email cannot be empty!" : null;
+    }
+
+    static String checkCourse(String course) {
+        return course == null || course.isEmpty() ? "Course cannot be empty!" : null;
+    }
+
+    static String checkMarks(double marks) {
+        return marks < 0 || marks > 100 || Double.isNaN(marks) ? "Marks must be between 0 and 100!" : null;
+    }
+
+    public static List<String> validate(String name, String email, String course, double marks) {
+        List<String> errors = null;
+        for (String e : new String[] { checkName(name), checkEmail(email), checkCourse(course), checkMarks(marks) }) {
+            if (e == null) continue;
+            if (errors == null) errors = new ArrayList<>(4);
+            errors.add(e);
+        }
+        return errors == null ? List.of() : errors;
+    }
+
+    public StudentResult tryAddStudent(int rollNo, String name, String email, String course, double marks) {
+        List<String> errors = validate(name, email, course, marks);
+        if (!errors.isEmpty()) return new StudentResult(StudentResult.INVALID, null, errors);
+        Student s = new Student(rollNo, name, email, course, marks);
+        return addStudent(s) ? StudentResult.ok(s) : StudentResult.duplicate(rollNo);
+    }
+
+    public synchronized SavePipeline savePipeline() {
+        if (savePipeline == null) savePipeline = new SavePipeline(this, 1024, (saved, rejected, queued) -> {});
+        return savePipeline;
+    }
+
+    public StudentResult lookup(int rollNo) {
+        Student s = findStudent(rollNo);
+        return s == null ? StudentResult.MISSING : StudentResult.ok(s);
+    }
+
+    public Student getStudent(int rollNo) throws StudentNotFoundException {
+        StudentResult r = lookup(rollNo);
+        if (!r.isOk()) {
+            throw new StudentNotFoundException("Student with Roll No " + rollNo + " not found!");
+        }
+        return r.student;
+    }
+
+    private static void require(String error) {
+        if (error != null) throw new IllegalArgumentException(error);
+    }
+
+    public synchronized int size() {
+        return students.size();
+    }
+
     @Override
     public void addStudent() {
         try {
             System.out.print("Enter Roll No (Integer): ");
             Integer rollNo = sc.nextInt(); 
             sc.nextLine(); 
+            if (findStudent(rollNo) != null)
+                throw new IllegalArgumentException("Duplicate roll number " + rollNo + "!");
 
             System.out.print("Enter Name: ");
             String name = sc.nextLine();
-            if (name.isEmpty()) throw new IllegalArgumentException("Name cannot be empty!");
+            require(checkName(name));
 
             System.out.print("Enter Email: ");
             String email = sc.nextLine();
-            if (email.isEmpty()) throw new IllegalArgumentException("Email cannot be empty!");
+            require(checkEmail(email));
 
             System.out.print("Enter Course: ");
             String course = sc.nextLine();
-            if (course.isEmpty()) throw new IllegalArgumentException("Course cannot be empty!");
+            require(checkCourse(course));
 
             System.out.print("Enter Marks: ");
             Double marks = sc.nextDouble(); 
-            if (marks < 0 || marks > 100)
-                throw new IllegalArgumentException("Marks must be between 0 and 100!");
+            require(checkMarks(marks));
 
-          
-            Thread loader = new Thread(new Loader("Loading"));
-            loader.start();
-            loader.join();
-
-           
-            Student s = new Student(rollNo, name, email, course, marks);
-            students.add(s);
+            System.out.println("Saving...");
+            StudentResult result = savePipeline().submit(new Student(rollNo, name, email, course, marks)).get();
+            if (!result.isOk()) throw new IllegalArgumentException(result.message());
             System.out.println("Student added successfully!\n");
 
         } catch (InputMismatchException e) {
@@ -128,44 +339,560 @@ class StudentManager implements RecordActions {
         } catch (IllegalArgumentException e) {
             System.out.println("Error: " + e.getMessage());
         } catch (InterruptedException e) {
-            System.out.println("Thread interrupted during loading.");
+            System.out.println("Thread interrupted while saving.");
+        } catch (ExecutionException e) {
+            System.out.println("Error: " + e.getCause().getMessage());
         } finally {
             System.out.println("Operation completed.\n");
         }
     }
 
     @Override
-    public void displayAllStudents() {
+    public synchronized void displayAllStudents() {
         if (students.isEmpty()) {
             System.out.println("No student records found.");
-        } else {
-            for (Student s : students) {
-                s.display();
+            return;
+        }
+        StringBuilder sb = new StringBuilder(1 << 16);
+        for (Student s : students) {
+            s.appendTo(sb);
+            if (sb.length() >= 1 << 16) {
+                System.out.print(sb);
+                sb.setLength(0);
             }
         }
+        System.out.print(sb);
     }
 
     @Override
     public void searchStudent(int rollNo) throws StudentNotFoundException {
-        boolean found = false;
-        for (Student s : students) {
-            if (s.getRollNo().equals(rollNo)) {
-                s.display();
-                found = true;
+        getStudent(rollNo).display();
+    }
+}
+
+
+interface SaveListener {
+    void onProgress(long saved, long rejected, int queued);
+}
+
+
+class SavePipeline implements AutoCloseable {
+    private static final class Pending {
+        final Student student;
+        final CompletableFuture<StudentResult> done = new CompletableFuture<>();
+
+        Pending(Student student) {
+            this.student = student;
+        }
+    }
+
+    private static final Pending CLOSE = new Pending(null);
+
+    private final StudentManager manager;
+    private final int maxBatch;
+    private final SaveListener listener;
+    private final LinkedBlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final Thread saver;
+    private volatile boolean closed;
+    private long saved;
+    private long rejected;
+
+    public SavePipeline(StudentManager manager, int maxBatch, SaveListener listener) {
+        this.manager = manager;
+        this.maxBatch = maxBatch;
+        this.listener = listener;
+        this.saver = Thread.ofVirtual().name("student-saver").start(this::drain);
+    }
+
+    public CompletableFuture<StudentResult> submit(Student student) {
+        Pending p = new Pending(student);
+        if (!closed) {
+            queue.add(p);
+            if (!closed || !queue.remove(p)) return p.done;
+        }
+        p.done.completeExceptionally(new IllegalStateException("Save pipeline is closed"));
+        return p.done;
+    }
+
+    private void drain() {
+        List<Pending> batch = new ArrayList<>(maxBatch);
+        List<Student> students = new ArrayList<>(maxBatch);
+        boolean running = true;
+        while (running) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
                 break;
             }
+            queue.drainTo(batch, maxBatch - 1);
+            if (batch.remove(CLOSE)) {
+                running = false;
+                queue.drainTo(batch);
+            }
+            for (Pending p : batch) students.add(p.student);
+            try {
+                Set<Student> duplicates = Collections.newSetFromMap(new IdentityHashMap<>());
+                duplicates.addAll(manager.addStudents(students));
+                for (Pending p : batch) {
+                    if (duplicates.contains(p.student)) {
+                        rejected++;
+                        p.done.complete(StudentResult.duplicate(p.student.rollNo()));
+                    } else {
+                        saved++;
+                        p.done.complete(StudentResult.ok(p.student));
+                    }
+                }
+            } catch (RuntimeException e) {
+                for (Pending p : batch) p.done.completeExceptionally(e);
+            }
+            batch.clear();
+            students.clear();
+            try {
+                listener.onProgress(saved, rejected, queue.size());
+            } catch (RuntimeException e) {
+                System.out.println("Save listener failed: " + e.getMessage());
+            }
         }
-        if (!found) {
-            throw new StudentNotFoundException("Student with Roll No " + rollNo + " not found!");
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        queue.add(CLOSE);
+        try {
+            saver.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
     }
 }
 
 
-public class StudentManagementSystem {
+class SavePipelineBenchmark {
+    public static void main(String[] args) throws Exception {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int producers = 1000;
+        StudentManager manager = new StudentManager();
+        long start = System.nanoTime();
+        try (SavePipeline pipeline = new SavePipeline(manager, 4096, (saved, rejected, queued) -> {
+                 if (saved % 100_000 < 4096) System.out.println("Saved: " + saved + ", queued: " + queued);
+             });
+             ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<CompletableFuture<StudentResult>> results = Collections.synchronizedList(new ArrayList<>(n));
+            for (int t = 0; t < producers; t++) {
+                int from = (int) ((long) n * t / producers), to = (int) ((long) n * (t + 1) / producers);
+                callers.submit(() -> {
+                    for (int i = from; i < to; i++) {
+                        results.add(pipeline.submit(new Student(i, "Student", "student@uni.edu", "CSE", 75.0)));
+                    }
+                });
+            }
+            callers.shutdown();
+            while (!callers.isTerminated()) Thread.sleep(10);
+            CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0])).join();
+        }
+        long ms = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        System.out.printf("Saved %d students in %d ms (%d students/s)%n", manager.size(), ms, manager.size() * 1000L / ms);
+    }
+}
+
+
+class CsvStudentImporter {
+    private static final int CHUNK_SIZE = 8192;
+    private static final int BATCH_SIZE = 10_000;
+
+    static class Row {
+        final int line;
+        final String raw;
+        final Student student;
+        final String error;
+
+        Row(int line, String raw, Student student, String error) {
+            this.line = line;
+            this.raw = raw;
+            this.student = student;
+            this.error = error;
+        }
+    }
+
+    static class ImportReport {
+        int imported;
+        int rejected;
+        long millis;
+
+        @Override
+        public String toString() {
+            return "Imported: " + imported + ", Rejected: " + rejected + ", Time: " + millis + " ms";
+        }
+    }
+
+    static Row parse(int line, String raw) {
+        String[] f = raw.split(",", -1);
+        if (f.length != 5) return new Row(line, raw, null, "Expected 5 fields: rollNo,name,email,course,marks");
+        int rollNo;
+        double marks;
+        try {
+            rollNo = Integer.parseInt(f[0].trim());
+        } catch (NumberFormatException e) {
+            return new Row(line, raw, null, "Invalid roll number");
+        }
+        String name = f[1].trim(), email = f[2].trim(), course = f[3].trim();
+        try {
+            marks = Double.parseDouble(f[4].trim());
+        } catch (NumberFormatException e) {
+            return new Row(line, raw, null, "Invalid marks");
+        }
+        List<String> errors = StudentManager.validate(name, email, course, marks);
+        if (!errors.isEmpty()) return new Row(line, raw, null, String.join(" ", errors));
+        return new Row(line, raw, new Student(rollNo, name, email, course, marks), null);
+    }
+
+    static List<Row> parseChunk(List<String> lines, int firstLine) {
+        List<Row> rows = new ArrayList<>(lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            String raw = lines.get(i);
+            if (!raw.isBlank()) rows.add(parse(firstLine + i, raw));
+        }
+        return rows;
+    }
+
+    public static ImportReport importFile(Path csv, Path errorReport, StudentManager manager) throws IOException {
+        long start = System.nanoTime();
+        List<String> lines = Files.readAllLines(csv, StandardCharsets.UTF_8);
+        int first = !lines.isEmpty() && lines.get(0).toLowerCase().startsWith("roll") ? 1 : 0;
+
+        List<Integer> chunkStarts = new ArrayList<>();
+        for (int i = first; i < lines.size(); i += CHUNK_SIZE) chunkStarts.add(i);
+        List<List<Row>> chunks = chunkStarts.parallelStream()
+                .map(i -> parseChunk(lines.subList(i, Math.min(i + CHUNK_SIZE, lines.size())), i + 1))
+                .collect(Collectors.toList());
+
+        ImportReport report = new ImportReport();
+        try (BufferedWriter out = Files.newBufferedWriter(errorReport, StandardCharsets.UTF_8)) {
+            out.write("line,error,record");
+            out.newLine();
+            List<Student> batch = new ArrayList<>(BATCH_SIZE);
+            Map<Student, Row> origin = new IdentityHashMap<>();
+            for (List<Row> chunk : chunks) {
+                for (Row row : chunk) {
+                    if (row.error != null) {
+                        writeError(out, row.line, row.error, row.raw);
+                        report.rejected++;
+                        continue;
+                    }
+                    batch.add(row.student);
+                    origin.put(row.student, row);
+                    if (batch.size() == BATCH_SIZE) commit(manager, batch, origin, out, report);
+                }
+            }
+            commit(manager, batch, origin, out, report);
+        }
+        report.millis = (System.nanoTime() - start) / 1_000_000;
+        return report;
+    }
+
+    private static void commit(StudentManager manager, List<Student> batch, Map<Student, Row> origin,
+                               BufferedWriter out, ImportReport report) throws IOException {
+        List<Student> duplicates = manager.addStudents(batch);
+        for (Student d : duplicates) {
+            Row row = origin.get(d);
+            writeError(out, row.line, "Duplicate roll number " + d.rollNo() + "!", row.raw);
+        }
+        report.imported += batch.size() - duplicates.size();
+        report.rejected += duplicates.size();
+        batch.clear();
+        origin.clear();
+    }
+
+    private static void writeError(BufferedWriter out, int line, String error, String raw) throws IOException {
+        out.write(line + ",\"" + error + "\"," + raw);
+        out.newLine();
+    }
+}
+
+
+class RollNoLookupBenchmark {
     public static void main(String[] args) {
-        Scanner sc = new Scanner(System.in);
+        int[] sizes = args.length > 0
+                ? Arrays.stream(args).mapToInt(Integer::parseInt).toArray()
+                : new int[] { 10_000, 100_000, 1_000_000, 10_000_000 };
+        Random rnd = new Random(42);
+        System.out.println("students      linear ns/op     indexed ns/op");
+        for (int n : sizes) {
+            ArrayList<Student> list = new ArrayList<>(n);
+            StudentManager manager = new StudentManager();
+            for (int i = 0; i < n; i++) {
+                Student s = new Student(i * 7 + 1, "Student", "student@uni.edu", "CSE", 75.0);
+                list.add(s);
+                manager.addStudent(s);
+            }
+
+            int linearOps = Math.max(20, 20_000_000 / n);
+            long sink = 0;
+            long start = System.nanoTime();
+            for (int k = 0; k < linearOps; k++) {
+                Integer target = rnd.nextInt(n) * 7 + 1;
+                for (Student s : list) {
+                    if (s.getRollNo().equals(target)) {
+                        sink += s.rollNo();
+                        break;
+                    }
+                }
+            }
+            double linearNs = (System.nanoTime() - start) / (double) linearOps;
+
+            int indexedOps = 5_000_000;
+            start = System.nanoTime();
+            for (int k = 0; k < indexedOps; k++) {
+                Student s = manager.findStudent(rnd.nextInt(n) * 7 + 1);
+                if (s != null) sink += s.rollNo();
+            }
+            double indexedNs = (System.nanoTime() - start) / (double) indexedOps;
+
+            System.out.printf("%-12d %14.1f %17.1f%n", n, linearNs, indexedNs);
+            if (sink == 42) System.out.println();
+        }
+    }
+}
+
+
+class MissLookupBenchmark {
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int ops = args.length > 1 ? Integer.parseInt(args[1]) : 2_000_000;
         StudentManager manager = new StudentManager();
+        for (int i = 0; i < n; i++) manager.addStudent(new Student(i, "Student", "student@uni.edu", "CSE", 75.0));
+
+        Random rnd = new Random(7);
+        int[] keys = new int[ops];
+        for (int i = 0; i < ops; i++) keys[i] = rnd.nextInt(10) == 0 ? rnd.nextInt(n) : n + rnd.nextInt(n);
+
+        for (int round = 0; round < 3; round++) {
+            long thrownHits = 0, resultHits = 0;
+            long start = System.nanoTime();
+            for (int k : keys) {
+                try {
+                    manager.getStudent(k);
+                    thrownHits++;
+                } catch (StudentNotFoundException ignored) {}
+            }
+            double throwingNs = (System.nanoTime() - start) / (double) ops;
+
+            start = System.nanoTime();
+            for (int k : keys) {
+                if (manager.lookup(k).isOk()) resultHits++;
+            }
+            double resultNs = (System.nanoTime() - start) / (double) ops;
+
+            System.out.printf("Round %d (90%% misses): throwing %.1f ns/op (%d hits), result %.1f ns/op (%d hits)%n",
+                    round + 1, throwingNs, thrownHits, resultNs, resultHits);
+        }
+    }
+}
+
+
+class BatchReader {
+    private final InputStream in;
+    private byte[] buf = new byte[1 << 16];
+    private int limit;
+    private int next;
+    private int lineEnd;
+    private int pos;
+    private int lineNo;
+    private boolean eof;
+
+    public BatchReader(InputStream in) {
+        this.in = in;
+    }
+
+    private int indexOfNewline(int from) {
+        for (int i = from; i < limit; i++) {
+            if (buf[i] == '\n') return i;
+        }
+        return -1;
+    }
+
+    private void fill() throws IOException {
+        System.arraycopy(buf, next, buf, 0, limit - next);
+        limit -= next;
+        next = 0;
+        if (limit == buf.length) buf = Arrays.copyOf(buf, buf.length << 1);
+        int n = in.read(buf, limit, buf.length - limit);
+        if (n < 0) eof = true;
+        else limit += n;
+    }
+
+    public boolean nextLine() throws IOException {
+        while (true) {
+            int nl = indexOfNewline(next);
+            if (nl < 0) {
+                if (!eof) {
+                    fill();
+                    continue;
+                }
+                if (next >= limit) return false;
+                nl = limit;
+            }
+            pos = next;
+            lineEnd = nl > pos && buf[nl - 1] == '\r' ? nl - 1 : nl;
+            next = nl + 1;
+            lineNo++;
+            skipSpaces();
+            if (pos < lineEnd && buf[pos] != '#') return true;
+        }
+    }
+
+    public int line() {
+        return lineNo;
+    }
+
+    public boolean hasField() {
+        return pos < lineEnd;
+    }
+
+    private void skipSpaces() {
+        while (pos < lineEnd && (buf[pos] == ' ' || buf[pos] == '\t')) pos++;
+    }
+
+    private int fieldEnd() {
+        int i = pos;
+        while (i < lineEnd && buf[i] != ',') i++;
+        return i;
+    }
+
+    private int trimmedEnd(int end) {
+        while (end > pos && (buf[end - 1] == ' ' || buf[end - 1] == '\t')) end--;
+        return end;
+    }
+
+    private void advance(int end) {
+        pos = end < lineEnd ? end + 1 : lineEnd;
+        skipSpaces();
+    }
+
+    public boolean keyword(String word) {
+        int end = fieldEnd(), e = trimmedEnd(end);
+        if (e - pos != word.length()) return false;
+        for (int i = 0; i < word.length(); i++) {
+            if (Character.toLowerCase(buf[pos + i]) != word.charAt(i)) return false;
+        }
+        advance(end);
+        return true;
+    }
+
+    public String text() {
+        if (!hasField()) throw new IllegalArgumentException("missing field");
+        int end = fieldEnd();
+        String s = new String(buf, pos, trimmedEnd(end) - pos, StandardCharsets.UTF_8);
+        advance(end);
+        return s;
+    }
+
+    public int intField() {
+        int end = fieldEnd(), e = trimmedEnd(end), i = pos;
+        boolean negative = i < e && buf[i] == '-';
+        if (negative || (i < e && buf[i] == '+')) i++;
+        if (i == e) throw new IllegalArgumentException("expected an integer");
+        long value = 0;
+        for (; i < e; i++) {
+            int d = buf[i] - '0';
+            if (d < 0 || d > 9) throw new IllegalArgumentException("expected an integer");
+            value = value * 10 + d;
+            if (value > (long) Integer.MAX_VALUE + 1) throw new IllegalArgumentException("integer out of range");
+        }
+        if (negative) value = -value;
+        if (value > Integer.MAX_VALUE) throw new IllegalArgumentException("integer out of range");
+        advance(end);
+        return (int) value;
+    }
+
+    private static final double[] POW10 = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18 };
+
+    public double doubleField() {
+        int end = fieldEnd(), e = trimmedEnd(end), i = pos;
+        boolean negative = i < e && buf[i] == '-';
+        if (negative || (i < e && buf[i] == '+')) i++;
+        long mantissa = 0;
+        int digits = 0, scale = 0;
+        boolean dot = false, simple = true;
+        for (; i < e; i++) {
+            byte b = buf[i];
+            if (b == '.' && !dot) {
+                dot = true;
+            } else if (b >= '0' && b <= '9') {
+                if (++digits > 15) simple = false;
+                mantissa = mantissa * 10 + (b - '0');
+                if (dot) scale++;
+            } else {
+                simple = false;
+                break;
+            }
+        }
+        double value;
+        if (simple && digits > 0) {
+            value = mantissa / POW10[scale];
+            if (negative) value = -value;
+        } else {
+            try {
+                value = Double.parseDouble(new String(buf, pos, e - pos, StandardCharsets.US_ASCII));
+            } catch (NumberFormatException ex) {
+                throw new IllegalArgumentException("expected a number");
+            }
+        }
+        if (!Double.isFinite(value)) throw new IllegalArgumentException("expected a number");
+        advance(end);
+        return value;
+    }
+}
+
+public class StudentManagementSystem {
+    static long runBatch(InputStream in, StudentManager manager) throws IOException {
+        BatchReader r = new BatchReader(in);
+        PrintStream console = System.out;
+        PrintStream out = new PrintStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out), 1 << 16), false);
+        System.setOut(out);
+        long commands = 0;
+        try {
+            while (r.nextLine()) {
+                commands++;
+                try {
+                    if (r.keyword("add")) {
+                        StudentResult result = manager.tryAddStudent(r.intField(), r.text(), r.text(), r.text(), r.doubleField());
+                        out.println(result.isOk() ? "Student added successfully!" : "Line " + r.line() + ": " + String.join(" ", result.errors));
+                    } else if (r.keyword("search")) {
+                        try {
+                            manager.searchStudent(r.intField());
+                        } catch (StudentNotFoundException e) {
+                            out.println("Error: " + e.getMessage());
+                        }
+                    } else if (r.keyword("list")) {
+                        manager.displayAllStudents();
+                    } else {
+                        out.println("Line " + r.line() + ": unknown command");
+                    }
+                } catch (IllegalArgumentException e) {
+                    out.println("Line " + r.line() + ": " + e.getMessage());
+                }
+            }
+        } finally {
+            out.flush();
+            System.setOut(console);
+        }
+        return commands;
+    }
+
+    public static void main(String[] args) throws IOException {
+        StudentManager manager = new StudentManager();
+        if (args.length > 0 && args[0].equals("--batch")) {
+            long start = System.nanoTime();
+            try (InputStream in = args.length > 1 ? Files.newInputStream(Path.of(args[1])) : System.in) {
+                long commands = runBatch(in, manager);
+                System.err.printf("Replayed %d commands in %d ms%n", commands, (System.nanoTime() - start) / 1_000_000);
+            }
+            return;
+        }
+        Scanner sc = new Scanner(System.in);
         int choice;
 
         do {
@@ -174,6 +901,7 @@ public class StudentManagementSystem {
             System.out.println("2. Display All Students");
             System.out.println("3. Search Student");
             System.out.println("4. Exit");
+            System.out.println("5. Import Students from CSV");
             System.out.print("Enter your choice: ");
             choice = sc.nextInt();
 
@@ -196,6 +924,18 @@ public class StudentManagementSystem {
                 case 4:
                     System.out.println("Exiting application. Goodbye!");
                     break;
+                case 5:
+                    sc.nextLine();
+                    System.out.print("Enter CSV path (rollNo,name,email,course,marks): ");
+                    Path csv = Path.of(sc.nextLine().trim());
+                    Path errors = Path.of(csv + ".errors.csv");
+                    try {
+                        System.out.println(CsvStudentImporter.importFile(csv, errors, manager));
+                        System.out.println("Rejected rows written to " + errors);
+                    } catch (IOException e) {
+                        System.out.println("Error: could not import " + csv + " (" + e.getMessage() + ")");
+                    }
+                    break;
                 default:
                     System.out.println("Invalid choice! Please try again.");
             }
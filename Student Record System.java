@@ -1,5 +1,15 @@
 
+import java.io.BufferedOutputStream;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Scanner;
 
 
@@ -81,10 +91,213 @@ class Student extends Person {
 }
 
 
+class BatchReader {
+    private final InputStream in;
+    private byte[] buf = new byte[1 << 16];
+    private int limit;
+    private int next;
+    private int lineEnd;
+    private int pos;
+    private int lineNo;
+    private boolean eof;
+
+    public BatchReader(InputStream in) {
+        this.in = in;
+    }
+
+    private int indexOfNewline(int from) {
+        for (int i = from; i < limit; i++) {
+            if (buf[i] == '\n') return i;
+        }
+        return -1;
+    }
+
+    private void fill() throws IOException {
+        System.arraycopy(buf, next, buf, 0, limit - next);
+        limit -= next;
+        next = 0;
+        if (limit == buf.length) buf = Arrays.copyOf(buf, buf.length << 1);
+        int n = in.read(buf, limit, buf.length - limit);
+        if (n < 0) eof = true;
+        else limit += n;
+    }
+
+    public boolean nextLine() throws IOException {
+        while (true) {
+            int nl = indexOfNewline(next);
+            if (nl < 0) {
+                if (!eof) {
+                    fill();
+                    continue;
+                }
+                if (next >= limit) return false;
+                nl = limit;
+            }
+            pos = next;
+            lineEnd = nl > pos && buf[nl - 1] == '\r' ? nl - 1 : nl;
+            next = nl + 1;
+            lineNo++;
+            skipSpaces();
+            if (pos < lineEnd && buf[pos] != '#') return true;
+        }
+    }
+
+    public int line() {
+        return lineNo;
+    }
+
+    public boolean hasField() {
+        return pos < lineEnd;
+    }
+
+    private void skipSpaces() {
+        while (pos < lineEnd && (buf[pos] == ' ' || buf[pos] == '\t')) pos++;
+    }
+
+    private int fieldEnd() {
+        int i = pos;
+        while (i < lineEnd && buf[i] != ',') i++;
+        return i;
+    }
+
+    private int trimmedEnd(int end) {
+        while (end > pos && (buf[end - 1] == ' ' || buf[end - 1] == '\t')) end--;
+        return end;
+    }
+
+    private void advance(int end) {
+        pos = end < lineEnd ? end + 1 : lineEnd;
+        skipSpaces();
+    }
+
+    public boolean keyword(String word) {
+        int end = fieldEnd(), e = trimmedEnd(end);
+        if (e - pos != word.length()) return false;
+        for (int i = 0; i < word.length(); i++) {
+            if (Character.toLowerCase(buf[pos + i]) != word.charAt(i)) return false;
+        }
+        advance(end);
+        return true;
+    }
+
+    public String text() {
+        if (!hasField()) throw new IllegalArgumentException("missing field");
+        int end = fieldEnd();
+        String s = new String(buf, pos, trimmedEnd(end) - pos, StandardCharsets.UTF_8);
+        advance(end);
+        return s;
+    }
+
+    public int intField() {
+        int end = fieldEnd(), e = trimmedEnd(end), i = pos;
+        boolean negative = i < e && buf[i] == '-';
+        if (negative || (i < e && buf[i] == '+')) i++;
+        if (i == e) throw new IllegalArgumentException("expected an integer");
+        long value = 0;
+        for (; i < e; i++) {
+            int d = buf[i] - '0';
+            if (d < 0 || d > 9) throw new IllegalArgumentException("expected an integer");
+            value = value * 10 + d;
+            if (value > (long) Integer.MAX_VALUE + 1) throw new IllegalArgumentException("integer out of range");
+        }
+        if (negative) value = -value;
+        if (value > Integer.MAX_VALUE) throw new IllegalArgumentException("integer out of range");
+        advance(end);
+        return (int) value;
+    }
+
+    private static final double[] POW10 = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18 };
+
+    public double doubleField() {
+        int end = fieldEnd(), e = trimmedEnd(end), i = pos;
+        boolean negative = i < e && buf[i] == '-';
+        if (negative || (i < e && buf[i] == '+')) i++;
+        long mantissa = 0;
+        int digits = 0, scale = 0;
+        boolean dot = false, simple = true;
+        for (; i < e; i++) {
+            byte b = buf[i];
+            if (b == '.' && !dot) {
+                dot = true;
+            } else if (b >= '0' && b <= '9') {
+                if (++digits > 15) simple = false;
+                mantissa = mantissa * 10 + (b - '0');
+                if (dot) scale++;
+            } else {
+                simple = false;
+                break;
+            }
+        }
+        double value;
+        if (simple && digits > 0) {
+            value = mantissa / POW10[scale];
+            if (negative) value = -value;
+        } else {
+            try {
+                value = Double.parseDouble(new String(buf, pos, e - pos, StandardCharsets.US_ASCII));
+            } catch (NumberFormatException ex) {
+                throw new IllegalArgumentException("expected a number");
+            }
+        }
+        if (!Double.isFinite(value)) throw new IllegalArgumentException("expected a number");
+        advance(end);
+        return value;
+    }
+}
+
 public class StudentRecordSystem {
-    public static void main(String[] args) {
-        Scanner sc = new Scanner(System.in);
+    static long runBatch(InputStream in, ArrayList<Student> students) throws IOException {
+        BatchReader r = new BatchReader(in);
+        PrintStream console = System.out;
+        PrintStream out = new PrintStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out), 1 << 16), false);
+        System.setOut(out);
+        long commands = 0;
+        try {
+            while (r.nextLine()) {
+                commands++;
+                try {
+                    if (r.keyword("add")) {
+                        int rollNo = r.intField();
+                        String name = r.text(), course = r.text();
+                        double marks = r.doubleField();
+                        if (marks < 0 || marks > 100) throw new IllegalArgumentException("Invalid marks! Please enter between 0 and 100.");
+                        students.add(new Student(rollNo, name, course, marks));
+                        out.println("Student record added successfully!");
+                    } else if (r.keyword("list")) {
+                        if (students.isEmpty()) {
+                            out.println("No student records found!");
+                        } else {
+                            out.println("\n===== All Student Records =====");
+                            for (Student st : students) {
+                                st.displayDetails();
+                            }
+                        }
+                    } else {
+                        out.println("Line " + r.line() + ": unknown command");
+                    }
+                } catch (IllegalArgumentException e) {
+                    out.println("Line " + r.line() + ": " + e.getMessage());
+                }
+            }
+        } finally {
+            out.flush();
+            System.setOut(console);
+        }
+        return commands;
+    }
+
+    public static void main(String[] args) throws IOException {
         ArrayList<Student> students = new ArrayList<>();
+        if (args.length > 0 && args[0].equals("--batch")) {
+            long start = System.nanoTime();
+            try (InputStream in = args.length > 1 ? Files.newInputStream(Path.of(args[1])) : System.in) {
+                long commands = runBatch(in, students);
+                System.err.printf("Replayed %d commands in %d ms%n", commands, (System.nanoTime() - start) / 1_000_000);
+            }
+            return;
+        }
+        Scanner sc = new Scanner(System.in);
         int choice;
 
         do {